@@ -0,0 +1,137 @@
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * This class evaluates the Manhattan and Hamming heuristics with the incubating Vector API,
+ * one packed board per lane. For each cell the tiles of every lane are shifted out together,
+ * and the goal row and column of each tile are read from nibble tables with a per-lane shift,
+ * so a whole batch is scored with no gathers or branches. Vectors are 4 lanes wide, as an
+ * expansion has at most 4 children; boards left over after the last full vector are loaded
+ * with the unused lanes masked off, so a batch of 2 or 3 siblings is vectorized too.
+ *
+ * It is kept out of src because it needs the incubator module to compile and run:
+ *   javac --add-modules jdk.incubator.vector -cp bin -d bin src-vector/*.java
+ *   java --add-modules jdk.incubator.vector -cp bin ...
+ * @version 1.0
+ */
+public class VectorBatchHeuristics extends BatchHeuristics {
+    private static final VectorSpecies<Long> SPECIES = LongVector.SPECIES_256;
+
+    //Goal row and column of each tile, packed as nibbles indexed by tile
+    private long goalRows = 0;
+    private long goalCols = 0;
+    private long[] lanes = new long[SPECIES.length()];
+
+
+    /**
+     * Constructor for a vector evaluator towards the goal
+     * @param goal the packed Goal board
+     */
+    public VectorBatchHeuristics(long goal) {
+        super(goal);
+        for(int cell = 0; cell < CELLS; cell++) {
+            int tile = PackedBoard.tileAt(goal, cell);
+            this.goalRows |= ((long) (cell / PackedBoard.SIZE)) << (4 * tile);
+            this.goalCols |= ((long) (cell % PackedBoard.SIZE)) << (4 * tile);
+        }
+    }
+
+
+    /**
+     * Calculates the Manhattan score of each board, a vector of boards at a time
+     * @param boards the packed boards
+     * @param count the number of boards to evaluate
+     * @param out the scores, one for each board
+     */
+    @Override
+    public void manhattan(long[] boards, int count, int[] out) {
+        LongVector rows = LongVector.broadcast(SPECIES, this.goalRows);
+        LongVector cols = LongVector.broadcast(SPECIES, this.goalCols);
+
+        for(int b = 0; b < count; b += SPECIES.length()) {
+            LongVector board = load(boards, b, count);
+            LongVector h = LongVector.zero(SPECIES);
+
+            for(int cell = 0; cell < CELLS; cell++) {
+                LongVector tile = board.lanewise(VectorOperators.LSHR, 4 * cell).and(0xFL);
+                LongVector shift = tile.lanewise(VectorOperators.LSHL, 2);
+                LongVector goalRow = rows.lanewise(VectorOperators.LSHR, shift).and(0xFL);
+                LongVector goalCol = cols.lanewise(VectorOperators.LSHR, shift).and(0xFL);
+                LongVector d = goalRow.sub(cell / PackedBoard.SIZE).abs()
+                        .add(goalCol.sub(cell % PackedBoard.SIZE).abs());
+
+                //The zero tile does not count
+                VectorMask<Long> isTile = tile.compare(VectorOperators.NE, 0L);
+                h = h.add(d, isTile);
+            }
+            store(h, b, count, out);
+        }
+    }
+
+
+    /**
+     * Counts the cells of each board that differ from the goal, a vector of boards at a time
+     * @param boards the packed boards
+     * @param count the number of boards to evaluate
+     * @param out the scores, one for each board
+     */
+    @Override
+    public void hamming(long[] boards, int count, int[] out) {
+        LongVector one = LongVector.broadcast(SPECIES, 1L);
+
+        for(int b = 0; b < count; b += SPECIES.length()) {
+            LongVector diff = load(boards, b, count).lanewise(VectorOperators.XOR, this.goal);
+            LongVector h = LongVector.zero(SPECIES);
+
+            for(int cell = 0; cell < CELLS; cell++) {
+                VectorMask<Long> differs = diff.lanewise(VectorOperators.LSHR, 4 * cell).and(0xFL)
+                        .compare(VectorOperators.NE, 0L);
+                h = h.add(one, differs);
+            }
+            store(h, b, count, out);
+        }
+    }
+
+
+    /**
+     * Loads the boards from an index, masking off the lanes past the count
+     * @param boards the packed boards
+     * @param b the index of the first board
+     * @param count the number of boards
+     * @return LongVector the boards, with 0 in the unused lanes
+     */
+    private static LongVector load(long[] boards, int b, int count) {
+        if(b + SPECIES.length() <= count) {
+            return LongVector.fromArray(SPECIES, boards, b);
+        }
+        return LongVector.fromArray(SPECIES, boards, b, SPECIES.indexInRange(b, count));
+    }
+
+
+    /**
+     * Writes the scores of the used lanes to the output
+     * @param h the scores
+     * @param b the index of the first board
+     * @param count the number of boards
+     * @param out the scores, one for each board
+     */
+    private void store(LongVector h, int b, int count, int[] out) {
+        h.intoArray(this.lanes, 0);
+        int used = Math.min(SPECIES.length(), count - b);
+        for(int lane = 0; lane < used; lane++) {
+            out[b + lane] = (int) this.lanes[lane];
+        }
+    }
+
+
+    /**
+     * Name of the evaluator, for reports
+     * @return String
+     */
+    @Override
+    public String getName() {
+        return "vector (" + SPECIES.length() + " lanes)";
+    }
+}
@@ -0,0 +1,199 @@
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * This class represents an additive heuristic made of pattern databases for disjoint groups
+ * of tiles. Since no tile is in more than one group, the sum of the table values never
+ * overestimates the number of moves left, and it is at least the Manhattan distance of the
+ * same tiles. On the 8-Puzzle the default split is tiles 1-4 and tiles 5-8.
+ *
+ * Running this class builds the tables for the default goal, saves them, and reports their
+ * build time and size along with the node expansions saved against Manhattan.
+ *
+ * Usage:
+ *   AdditivePatternDatabase directory [seed] [perBucket]
+ * @version 1.0
+ */
+public class AdditivePatternDatabase {
+    public static final int[][] DEFAULT_PARTITION = {{1, 2, 3, 4}, {5, 6, 7, 8}};
+    private static final int[] DEFAULT_GOAL = {1, 2, 3, 4, 5, 6, 7, 8, 0};
+    private static final ConcurrentHashMap<String, AdditivePatternDatabase> CACHE = new ConcurrentHashMap<>();
+
+    private long goal;
+    private PatternDatabase[] databases;
+
+
+    /**
+     * Constructor for a set of tables built for the same goal
+     * @param goal the packed Goal board
+     * @param databases the tables for each group of tiles
+     */
+    public AdditivePatternDatabase(long goal, PatternDatabase[] databases) {
+        this.goal = goal;
+        this.databases = databases.clone();
+    }
+
+
+    /**
+     * Builds the tables for each group of tiles
+     * @param goal the packed Goal board
+     * @param partition the disjoint groups of tiles
+     * @return AdditivePatternDatabase the built tables
+     */
+    public static AdditivePatternDatabase build(long goal, int[][] partition) {
+        PatternDatabase[] databases = new PatternDatabase[partition.length];
+        for(int i = 0; i < partition.length; i++) {
+            databases[i] = PatternDatabase.build(goal, partition[i]);
+        }
+        return new AdditivePatternDatabase(goal, databases);
+    }
+
+
+    /**
+     * Loads the saved tables for the goal from the directory, or builds them in
+     * memory if any are missing or were built for another goal. The tables are
+     * cached by goal and partition, so every solve towards the same goal after
+     * the first reuses them.
+     * @param goal the packed Goal board
+     * @param partition the disjoint groups of tiles
+     * @param directory the directory the tables were saved in
+     * @return AdditivePatternDatabase the loaded or built tables
+     */
+    public static AdditivePatternDatabase loadOrBuild(long goal, int[][] partition, String directory) {
+        String key = goal + ":" + Arrays.deepToString(partition);
+        return CACHE.computeIfAbsent(key, k -> loadOrBuildUncached(goal, partition, directory));
+    }
+
+
+    /**
+     * Loads or builds the tables as loadOrBuild does, without the cache
+     * @param goal the packed Goal board
+     * @param partition the disjoint groups of tiles
+     * @param directory the directory the tables were saved in
+     * @return AdditivePatternDatabase the loaded or built tables
+     */
+    private static AdditivePatternDatabase loadOrBuildUncached(long goal, int[][] partition, String directory) {
+        PatternDatabase[] databases = new PatternDatabase[partition.length];
+        for(int i = 0; i < partition.length; i++) {
+            File file = new File(directory, fileName(goal, partition[i]));
+            try {
+                databases[i] = file.exists() ? PatternDatabase.load(file.getPath()) : null;
+            } catch(IOException e) {
+                databases[i] = null;
+            }
+            if(databases[i] == null || databases[i].getGoal() != goal) {
+                databases[i] = PatternDatabase.build(goal, partition[i]);
+            }
+        }
+        return new AdditivePatternDatabase(goal, databases);
+    }
+
+
+    /**
+     * Sums the table values for the board
+     * @param board the packed board
+     * @return int the h(n) value
+     */
+    public int lookup(long board) {
+        int h = 0;
+        for(PatternDatabase database : this.databases) {
+            h += database.lookup(board);
+        }
+        return h;
+    }
+
+
+    /**
+     * Saves each table into the directory
+     * @param directory the directory to write to
+     */
+    public void save(String directory) throws IOException {
+        new File(directory).mkdirs();
+        for(PatternDatabase database : this.databases) {
+            database.save(new File(directory, fileName(this.goal, database.getTiles())).getPath());
+        }
+    }
+
+
+    /**
+     * Name of the file a table is saved in, from its goal and tiles
+     * @param goal the packed Goal board
+     * @param tiles the pattern tiles
+     * @return String the file name
+     */
+    private static String fileName(long goal, int[] tiles) {
+        StringBuilder name = new StringBuilder("pdb-").append(Long.toHexString(goal)).append('-');
+        for(int tile : tiles) {
+            name.append(Integer.toHexString(tile));
+        }
+        return name.append(".bin").toString();
+    }
+
+
+    /**
+     * Getter for the packed Goal board
+     * @return long
+     */
+    public long getGoal() {
+        return this.goal;
+    }
+
+
+    /**
+     * Getter for the tables
+     * @return PatternDatabase[]
+     */
+    public PatternDatabase[] getDatabases() {
+        return this.databases.clone();
+    }
+
+
+    /**
+     * Builds and saves the default tables, then solves generated puzzles with
+     * Manhattan and with the tables and reports the expansions of each
+     * @param args the directory to save to, and optionally a seed and puzzles per bucket
+     */
+    public static void main(String[] args) throws IOException {
+        if(args.length < 1) {
+            System.out.println("Usage: AdditivePatternDatabase directory [seed] [perBucket]");
+            System.exit(-2);
+        }
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : 1;
+        int perBucket = args.length > 2 ? Integer.parseInt(args[2]) : 2;
+        long goal = PackedBoard.pack(DEFAULT_GOAL);
+
+        AdditivePatternDatabase database = build(goal, DEFAULT_PARTITION);
+        database.save(args[0]);
+        for(PatternDatabase table : database.getDatabases()) {
+            System.out.println("Tiles " + Arrays.toString(table.getTiles()) + ": "
+                    + table.getEntries() + " entries, " + table.getTableBytes() + " bytes ("
+                    + table.getBitsPerEntry() + " bits each), built in " + table.getBuildNanos() / 1000000 + " ms");
+        }
+
+        //Compare on the harder half of a generated corpus
+        PuzzleGenerator generator = new PuzzleGenerator(seed, DEFAULT_GOAL);
+        ArrayList<ArrayList<int[]>> buckets = generator.generateBuckets(perBucket, 31, perBucket * 2000);
+        SearchStatistics manhattan = new SearchStatistics("Manhattan", "AStar");
+        SearchStatistics patterns = new SearchStatistics("PatternDatabase", "AStar");
+        for(int length = 16; length < buckets.size(); length++) {
+            for(int[] tiles : buckets.get(length)) {
+                EightPuzzleGame game = new EightPuzzleGame(new State(tiles), new State(DEFAULT_GOAL));
+                game.solve("Manhattan");
+                manhattan.merge(game.getStatistics());
+                game.setPatternDatabase(database);
+                game.solve("PatternDatabase");
+                patterns.merge(game.getStatistics());
+            }
+        }
+        System.out.println("Nodes expanded with Manhattan: " + manhattan.getExpanded());
+        System.out.println("Nodes expanded with PatternDatabase: " + patterns.getExpanded());
+        if(manhattan.getExpanded() > 0) {
+            System.out.println("Expansion reduction: " + String.format(Locale.ROOT, "%.1f",
+                    100.0 * (manhattan.getExpanded() - patterns.getExpanded()) / manhattan.getExpanded()) + "%");
+        }
+    }
+}
@@ -0,0 +1,138 @@
+/**
+ * This class evaluates the Manhattan and Hamming heuristics for many packed boards at once,
+ * such as the children of an expansion. The per-tile distances to the goal are found once
+ * when the evaluator is made, so each board costs nine table lookups with no grid copies.
+ *
+ * When the jdk.incubator.vector module is present and VectorBatchHeuristics has been
+ * compiled (see src-vector), create() returns the vector version, which evaluates one board
+ * per SIMD lane. Otherwise this scalar version is used.
+ * @version 1.0
+ */
+public class BatchHeuristics {
+    protected static final int CELLS = PackedBoard.CELLS;
+
+    protected long goal;
+
+    //Manhattan distance of each tile from each cell to its goal cell, indexed cell * 16 + tile
+    protected int[] distance = new int[CELLS * 16];
+
+
+    /**
+     * Constructor for a scalar evaluator towards the goal
+     * @param goal the packed Goal board
+     */
+    public BatchHeuristics(long goal) {
+        this.goal = goal;
+        for(int goalCell = 0; goalCell < CELLS; goalCell++) {
+            int tile = PackedBoard.tileAt(goal, goalCell);
+            for(int cell = 0; cell < CELLS; cell++) {
+                int d = Math.abs(cell / PackedBoard.SIZE - goalCell / PackedBoard.SIZE)
+                        + Math.abs(cell % PackedBoard.SIZE - goalCell % PackedBoard.SIZE);
+                this.distance[cell * 16 + tile] = tile == 0 ? 0 : d;
+            }
+        }
+    }
+
+
+    /**
+     * Makes the fastest evaluator available: the vector version if the
+     * vector module and class are present, otherwise the scalar version
+     * @param goal the packed Goal board
+     * @return BatchHeuristics the evaluator
+     */
+    public static BatchHeuristics create(long goal) {
+        if(isVectorAvailable()) {
+            try {
+                return (BatchHeuristics) Class.forName("VectorBatchHeuristics")
+                        .getConstructor(long.class).newInstance(goal);
+            } catch(ReflectiveOperationException | LinkageError e) {
+                //Fall back to scalar
+            }
+        }
+        return new BatchHeuristics(goal);
+    }
+
+
+    /**
+     * Checks if the jdk.incubator.vector module was added to the JVM
+     * @return boolean returns true if the Vector API can be used
+     */
+    public static boolean isVectorAvailable() {
+        return ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+    }
+
+
+    /**
+     * Calculates the Manhattan score of each board
+     * @param boards the packed boards
+     * @param count the number of boards to evaluate
+     * @param out the scores, one for each board
+     */
+    public void manhattan(long[] boards, int count, int[] out) {
+        for(int b = 0; b < count; b++) {
+            out[b] = manhattan(boards[b]);
+        }
+    }
+
+
+    /**
+     * Calculates how many cells differ from the goal for each board
+     * @param boards the packed boards
+     * @param count the number of boards to evaluate
+     * @param out the scores, one for each board
+     */
+    public void hamming(long[] boards, int count, int[] out) {
+        for(int b = 0; b < count; b++) {
+            out[b] = hamming(boards[b]);
+        }
+    }
+
+
+    /**
+     * Calculates the Manhattan score of one board
+     * @param board the packed board
+     * @return int the score
+     */
+    protected int manhattan(long board) {
+        int h = 0;
+        for(int cell = 0; cell < CELLS; cell++) {
+            h += this.distance[cell * 16 + (int) ((board >>> (4 * cell)) & 0xF)];
+        }
+        return h;
+    }
+
+
+    /**
+     * Counts the cells of one board that differ from the goal
+     * @param board the packed board
+     * @return int the score
+     */
+    protected int hamming(long board) {
+        long diff = board ^ this.goal;
+        int h = 0;
+        for(int cell = 0; cell < CELLS; cell++) {
+            if(((diff >>> (4 * cell)) & 0xF) != 0) {
+                h++;
+            }
+        }
+        return h;
+    }
+
+
+    /**
+     * Getter for the packed Goal board
+     * @return long
+     */
+    public long getGoal() {
+        return this.goal;
+    }
+
+
+    /**
+     * Name of the evaluator, for reports
+     * @return String
+     */
+    public String getName() {
+        return "scalar";
+    }
+}
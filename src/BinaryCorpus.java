@@ -0,0 +1,206 @@
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+/**
+ * This class writes puzzle corpora in a compact binary format and converts text corpora to it.
+ * The file starts with a 12 byte header: the magic number, a version byte, the board width, a
+ * flags byte saying whether Goal boards and move counts are stored, a reserved byte, and the
+ * number of puzzles. Fixed width records follow: the Start board packed into 5 bytes, then the
+ * Goal board in 5 bytes and the number of moves in 1 byte when their flags are set.
+ *
+ * Usage:
+ *   BinaryCorpus textFile binaryFile
+ * @version 1.0
+ */
+public class BinaryCorpus {
+    public static final int MAGIC = 0x38505A42;
+    public static final int VERSION = 1;
+    public static final int HEADER_BYTES = 12;
+    public static final int BOARD_BYTES = 5;
+    public static final int FLAG_GOALS = 1;
+    public static final int FLAG_LENGTHS = 2;
+
+
+    /**
+     * Entry point for converting a text corpus to the binary format
+     * @param args the text file and the binary file to write
+     */
+    public static void main(String[] args) throws IOException {
+        if(args.length < 2) {
+            System.out.println("Usage: BinaryCorpus textFile binaryFile");
+            System.exit(-2);
+        }
+        long startTime = System.nanoTime();
+        int count = convert(args[0], args[1]);
+        System.out.println("Converted " + count + " puzzles in " + (System.nanoTime() - startTime) / 1000000 + " ms");
+    }
+
+
+    /**
+     * Returns the size of one record for the flags
+     * @param flags the header flags
+     * @return int the record size in bytes
+     */
+    public static int recordBytes(int flags) {
+        int bytes = BOARD_BYTES;
+        if((flags & FLAG_GOALS) != 0) {
+            bytes += BOARD_BYTES;
+        }
+        if((flags & FLAG_LENGTHS) != 0) {
+            bytes += 1;
+        }
+        return bytes;
+    }
+
+
+    /**
+     * Converts a whitespace separated text corpus to the binary format. Each line
+     * holds 9 Start tiles, optionally followed by 9 Goal tiles and then the number
+     * of moves; the first line decides which are stored and every line must match.
+     * Lines starting with # are comments.
+     * @param textFile the text corpus to read
+     * @param binaryFile the binary corpus to write
+     * @return int the number of puzzles converted
+     * @throws IOException if a file cannot be used or a line is not a valid puzzle
+     */
+    public static int convert(String textFile, String binaryFile) throws IOException {
+        int flags = -1;
+        int count = 0;
+
+        try(BufferedReader in = new BufferedReader(new FileReader(textFile));
+                DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(binaryFile)))) {
+
+            //Header is written with a count of zero and patched at the end
+            writeHeader(out, 0, 0);
+
+            String line;
+            int lineNumber = 0;
+            while((line = in.readLine()) != null) {
+                lineNumber++;
+                line = line.trim();
+                if(line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] parts = line.split("\\s+");
+                int lineFlags = parts.length == 9 ? 0 : parts.length == 18 ? FLAG_GOALS
+                        : parts.length == 19 ? FLAG_GOALS | FLAG_LENGTHS : -1;
+                if(lineFlags < 0 || (flags >= 0 && lineFlags != flags)) {
+                    throw new IOException("Line " + lineNumber + ": expected " + (flags < 0 ? "9, 18 or 19"
+                            : String.valueOf(recordValues(flags))) + " values, found " + parts.length);
+                }
+                flags = lineFlags;
+
+                long board = packValidated(parts, 0, lineNumber);
+                writeBoard(out, board);
+                if((flags & FLAG_GOALS) != 0) {
+                    writeBoard(out, packValidated(parts, PackedBoard.CELLS, lineNumber));
+                }
+                if((flags & FLAG_LENGTHS) != 0) {
+                    out.writeByte(Integer.parseInt(parts[2 * PackedBoard.CELLS]));
+                }
+                count++;
+            }
+        }
+
+        try(RandomAccessFile file = new RandomAccessFile(binaryFile, "rw")) {
+            file.seek(0);
+            file.writeInt(MAGIC);
+            file.writeByte(VERSION);
+            file.writeByte(PackedBoard.SIZE);
+            file.writeByte(Math.max(flags, 0));
+            file.writeByte(0);
+            file.writeInt(count);
+        }
+        return count;
+    }
+
+
+    /**
+     * Writes a binary corpus from packed boards
+     * @param binaryFile the file to write
+     * @param boards the packed Start boards
+     * @param goals the packed Goal boards, or null to leave them out
+     * @param lengths the numbers of moves, or null to leave them out
+     */
+    public static void write(String binaryFile, long[] boards, long[] goals, int[] lengths) throws IOException {
+        int flags = (goals != null ? FLAG_GOALS : 0) | (lengths != null ? FLAG_LENGTHS : 0);
+        try(DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(binaryFile)))) {
+            writeHeader(out, flags, boards.length);
+            for(int i = 0; i < boards.length; i++) {
+                writeBoard(out, boards[i]);
+                if(goals != null) {
+                    writeBoard(out, goals[i]);
+                }
+                if(lengths != null) {
+                    out.writeByte(lengths[i]);
+                }
+            }
+        }
+    }
+
+
+    /**
+     * Writes the file header
+     * @param out the stream to write to
+     * @param flags the header flags
+     * @param count the number of puzzles
+     */
+    private static void writeHeader(DataOutputStream out, int flags, int count) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeByte(VERSION);
+        out.writeByte(PackedBoard.SIZE);
+        out.writeByte(flags);
+        out.writeByte(0);
+        out.writeInt(count);
+    }
+
+
+    /**
+     * Writes the low 5 bytes of a packed board, least significant first
+     * @param out the stream to write to
+     * @param board the packed board
+     */
+    private static void writeBoard(DataOutputStream out, long board) throws IOException {
+        for(int i = 0; i < BOARD_BYTES; i++) {
+            out.writeByte((int) (board >>> (8 * i)));
+        }
+    }
+
+
+    /**
+     * Packs 9 tiles from the text values and checks they are a permutation
+     * @param parts the values of the line
+     * @param offset the index of the first tile
+     * @param lineNumber the line, for the error message
+     * @return long the packed board
+     */
+    static long packValidated(String[] parts, int offset, int lineNumber) throws IOException {
+        long board = 0;
+        for(int k = 0; k < PackedBoard.CELLS; k++) {
+            int tile = Integer.parseInt(parts[offset + k]);
+            if(tile < 0 || tile >= PackedBoard.CELLS) {
+                throw new IOException("Line " + lineNumber + ": tiles must be between 0-8");
+            }
+            board |= ((long) tile) << (4 * k);
+        }
+        if(!PackedBoard.isPermutation(board)) {
+            throw new IOException("Line " + lineNumber + ": tiles must be 0-8 with no duplicates");
+        }
+        return board;
+    }
+
+
+    /**
+     * Number of text values in a line for the flags
+     * @param flags the header flags
+     * @return int
+     */
+    private static int recordValues(int flags) {
+        return flags == 0 ? 9 : (flags & FLAG_LENGTHS) != 0 ? 19 : 18;
+    }
+}
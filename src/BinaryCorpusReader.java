@@ -0,0 +1,182 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * This class reads a binary corpus written by BinaryCorpus through a memory-mapped file.
+ * Puzzles are read straight from the mapping with absolute gets, so yielding a puzzle to
+ * the solver allocates nothing and the operating system pages the file in as it is read.
+ * A single mapping holds files up to 2 GB, well over a hundred million puzzles.
+ * @version 1.0
+ */
+public class BinaryCorpusReader implements AutoCloseable {
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private int flags;
+    private int count;
+    private int recordBytes;
+
+
+    /**
+     * Constructor that maps the file and checks its header
+     * @param binaryFile the binary corpus to read
+     * @throws IOException if the file cannot be read or is not a binary corpus
+     */
+    public BinaryCorpusReader(String binaryFile) throws IOException {
+        this.channel = FileChannel.open(Paths.get(binaryFile), StandardOpenOption.READ);
+        this.buffer = this.channel.map(FileChannel.MapMode.READ_ONLY, 0, this.channel.size());
+        this.buffer.order(ByteOrder.BIG_ENDIAN);
+
+        if(this.buffer.limit() < BinaryCorpus.HEADER_BYTES || this.buffer.getInt(0) != BinaryCorpus.MAGIC) {
+            close();
+            throw new IOException("Not a binary corpus: " + binaryFile);
+        }
+        if(this.buffer.get(4) != BinaryCorpus.VERSION || this.buffer.get(5) != PackedBoard.SIZE) {
+            close();
+            throw new IOException("Unsupported corpus version or board size: " + binaryFile);
+        }
+        this.flags = this.buffer.get(6);
+        this.count = this.buffer.getInt(8);
+        this.recordBytes = BinaryCorpus.recordBytes(this.flags);
+
+        if(BinaryCorpus.HEADER_BYTES + (long) this.count * this.recordBytes > this.buffer.limit()) {
+            close();
+            throw new IOException("Binary corpus is truncated: " + binaryFile);
+        }
+    }
+
+
+    /**
+     * Checks if a file starts with the binary corpus magic number
+     * @param file the file to check
+     * @return boolean returns true if the file is a binary corpus
+     */
+    public static boolean isBinaryCorpus(String file) {
+        try(FileChannel channel = FileChannel.open(Paths.get(file), StandardOpenOption.READ)) {
+            ByteBuffer magic = ByteBuffer.allocate(4);
+            channel.read(magic, 0);
+            return magic.position() == 4 && magic.getInt(0) == BinaryCorpus.MAGIC;
+        } catch(IOException e) {
+            return false;
+        }
+    }
+
+
+    /**
+     * Getter for the number of puzzles
+     * @return int
+     */
+    public int size() {
+        return this.count;
+    }
+
+
+    /**
+     * Checks if Goal boards are stored
+     * @return boolean
+     */
+    public boolean hasGoals() {
+        return (this.flags & BinaryCorpus.FLAG_GOALS) != 0;
+    }
+
+
+    /**
+     * Checks if the number of moves is stored
+     * @return boolean
+     */
+    public boolean hasLengths() {
+        return (this.flags & BinaryCorpus.FLAG_LENGTHS) != 0;
+    }
+
+
+    /**
+     * Returns the packed Start board of a puzzle
+     * @param index the position of the puzzle
+     * @return long the packed board
+     */
+    public long board(int index) {
+        return readBoard(BinaryCorpus.HEADER_BYTES + (long) index * this.recordBytes);
+    }
+
+
+    /**
+     * Returns the packed Goal board of a puzzle, or the passed default
+     * when the corpus stores no goals
+     * @param index the position of the puzzle
+     * @param defaultGoal the goal to use when none is stored
+     * @return long the packed board
+     */
+    public long goal(int index, long defaultGoal) {
+        if(!hasGoals()) {
+            return defaultGoal;
+        }
+        return readBoard(BinaryCorpus.HEADER_BYTES + (long) index * this.recordBytes + BinaryCorpus.BOARD_BYTES);
+    }
+
+
+    /**
+     * Returns the stored number of moves of a puzzle
+     * @param index the position of the puzzle
+     * @return int the number of moves, or -1 if not stored
+     */
+    public int length(int index) {
+        if(!hasLengths()) {
+            return -1;
+        }
+        return this.buffer.get((int) (BinaryCorpus.HEADER_BYTES + (long) (index + 1) * this.recordBytes - 1)) & 0xFF;
+    }
+
+
+    /**
+     * Passes every puzzle to the consumer in order
+     * @param consumer the callback for each puzzle
+     * @param defaultGoal the goal to use when none is stored
+     */
+    public void forEach(BoardConsumer consumer, long defaultGoal) {
+        for(int i = 0; i < this.count; i++) {
+            consumer.accept(i, board(i), goal(i, defaultGoal), length(i));
+        }
+    }
+
+
+    /**
+     * Checks that every stored board is a permutation of the tiles
+     * @return int the index of the first invalid puzzle, or -1 if all are valid
+     */
+    public int validate() {
+        for(int i = 0; i < this.count; i++) {
+            if(!PackedBoard.isPermutation(board(i)) || (hasGoals() && !PackedBoard.isPermutation(goal(i, 0)))) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+
+    /**
+     * Reads 5 bytes, least significant first, into a packed board
+     * @param position the byte offset in the file
+     * @return long the packed board
+     */
+    private long readBoard(long position) {
+        int p = (int) position;
+        long board = 0;
+        for(int i = 0; i < BinaryCorpus.BOARD_BYTES; i++) {
+            board |= (this.buffer.get(p + i) & 0xFFL) << (8 * i);
+        }
+        return board;
+    }
+
+
+    /**
+     * Closes the file. The mapping is released when it is garbage collected.
+     */
+    @Override
+    public void close() throws IOException {
+        this.channel.close();
+    }
+}
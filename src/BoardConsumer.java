@@ -0,0 +1,16 @@
+/**
+ * This interface represents a callback that receives the puzzles of a corpus
+ * one at a time as packed boards, so reading them needs no objects per puzzle.
+ * @version 1.0
+ */
+public interface BoardConsumer {
+
+    /**
+     * Receives one puzzle of the corpus
+     * @param index the position of the puzzle in the corpus
+     * @param board the packed Start board
+     * @param goal the packed Goal board
+     * @param length the number of moves to the goal, or -1 if not stored
+     */
+    void accept(int index, long board, long goal, int length);
+}
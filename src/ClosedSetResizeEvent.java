@@ -0,0 +1,25 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * This class represents the Flight Recorder event for the set of visited States
+ * growing past its load factor, when its hash table is rehashed to twice the size.
+ * @version 1.0
+ */
+@Name("puzzle.ClosedSetResize")
+@Label("Visited Set Resize")
+@Category("8-Puzzle")
+@Description("The visited State set rehashed into a larger table")
+public class ClosedSetResizeEvent extends Event {
+    @Label("Old Capacity")
+    public int oldCapacity;
+
+    @Label("New Capacity")
+    public int newCapacity;
+
+    @Label("Size")
+    public int size;
+}
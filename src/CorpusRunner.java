@@ -0,0 +1,319 @@
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.HashMap;
+
+/**
+ * This class builds and solves a reproducible corpus of 8-Puzzle grids so changes to the
+ * solver can be checked for performance regressions. A corpus is a text file with one
+ * puzzle per line: the nine Start tiles, the nine Goal tiles, and the exact number of moves
+ * between them, all separated by whitespace. Lines starting with # are comments. A corpus
+ * converted by BinaryCorpus can be run in place of the text file.
+ * The report is a CSV file with one row per puzzle, holding the SearchStatistics of the solve,
+ * and the merged statistics of the whole corpus are printed at the end. When a baseline report
+ * is given, the run fails if any puzzle expands more nodes, or the whole corpus takes more time,
+ * than the baseline allows by the threshold.
+ *
+ * Usage:
+ *   CorpusRunner generate corpusFile seed perBucket [maxLength]
+ *   CorpusRunner run corpusFile reportFile heuristic [baselineFile] [thresholdPercent] [--mode mode] [--tt entries]
+ * The mode is the search to solve with, AStar by default. The entries are the size of the
+ * transposition table shared by the IDAStar solves, 1048576 by default.
+ * @version 1.0
+ */
+public class CorpusRunner {
+    private static final int[] DEFAULT_GOAL = {1, 2, 3, 4, 5, 6, 7, 8, 0};
+    private static final String REPORT_HEADER = "index,optimal," + SearchStatistics.CSV_HEADER;
+
+
+    /**
+     * Entry point for generating or running a corpus
+     * @param args the command and its arguments, see the class comment
+     */
+    public static void main(String[] args) throws IOException {
+
+        //Take out the search mode and transposition table options
+        String mode = "AStar";
+        int transpositionTableSize = 1 << 20;
+        ArrayList<String> positional = new ArrayList<>();
+        for(int i = 0; i < args.length; i++) {
+            if(args[i].equals("--mode") && i + 1 < args.length) {
+                mode = args[i + 1];
+                i++;
+            } else if(args[i].equals("--tt") && i + 1 < args.length) {
+                transpositionTableSize = Integer.parseInt(args[i + 1]);
+                i++;
+            } else {
+                positional.add(args[i]);
+            }
+        }
+        args = positional.toArray(new String[0]);
+
+        if(args.length >= 4 && args[0].equals("generate")) {
+            long seed = Long.parseLong(args[2]);
+            int perBucket = Integer.parseInt(args[3]);
+            int maxLength = args.length > 4 ? Integer.parseInt(args[4]) : 31;
+            generate(args[1], seed, perBucket, maxLength);
+        } else if(args.length >= 4 && args[0].equals("run")) {
+            String baseline = args.length > 4 ? args[4] : null;
+            double threshold = args.length > 5 ? Double.parseDouble(args[5]) : 10.0;
+            if(!run(args[1], args[2], args[3], mode, transpositionTableSize, baseline, threshold)) {
+                System.exit(1);
+            }
+        } else {
+            System.out.println("Usage: CorpusRunner generate corpusFile seed perBucket [maxLength]");
+            System.out.println("       CorpusRunner run corpusFile reportFile heuristic [baselineFile] [thresholdPercent]"
+                    + " [--mode mode] [--tt entries]");
+            System.exit(-2);
+        }
+    }
+
+
+    /**
+     * Generates a corpus towards the default goal and writes it to a file
+     * @param corpusFile the file to write
+     * @param seed the seed for the generator
+     * @param perBucket the number of puzzles for each number of moves
+     * @param maxLength the largest number of moves
+     */
+    public static void generate(String corpusFile, long seed, int perBucket, int maxLength) throws IOException {
+        PuzzleGenerator generator = new PuzzleGenerator(seed, DEFAULT_GOAL);
+        ArrayList<ArrayList<int[]>> buckets = generator.generateBuckets(perBucket, maxLength, perBucket * 2000);
+
+        try(PrintWriter out = new PrintWriter(corpusFile)) {
+            out.println("# seed " + seed + ", " + perBucket + " per bucket, up to " + maxLength + " moves");
+            for(int length = 0; length < buckets.size(); length++) {
+                for(int[] tiles : buckets.get(length)) {
+                    StringBuilder line = new StringBuilder();
+                    for(int tile : tiles) {
+                        line.append(tile).append(' ');
+                    }
+                    for(int tile : DEFAULT_GOAL) {
+                        line.append(tile).append(' ');
+                    }
+                    line.append(length);
+                    out.println(line);
+                }
+                System.out.println("Bucket " + length + ": " + buckets.get(length).size() + " puzzles");
+            }
+        }
+    }
+
+
+    /**
+     * Solves every puzzle in the corpus, writes the report, and compares
+     * it to the baseline report if one is given
+     * @param corpusFile the corpus to solve
+     * @param reportFile the report to write
+     * @param heuristic the Heuristic to solve with
+     * @param mode the search to solve with
+     * @param transpositionTableSize the entries in the IDAStar transposition table
+     * @param baselineFile the report to compare against, or null
+     * @param thresholdPercent the allowed regression in percent
+     * @return boolean returns false if any puzzle failed or regressed
+     */
+    public static boolean run(String corpusFile, String reportFile, String heuristic, String mode,
+            int transpositionTableSize, String baselineFile, double thresholdPercent) throws IOException {
+        ArrayList<String[]> rows = new ArrayList<>();
+        SearchStatistics total = new SearchStatistics(heuristic, mode);
+        boolean[] passed = {true};
+
+        BoardConsumer solver = (index, board, goal, length) -> {
+            EightPuzzleGame game = new EightPuzzleGame(new State(PackedBoard.unpack(board)),
+                    new State(PackedBoard.unpack(goal)));
+            game.setSearchMode(mode);
+            game.setTranspositionTableSize(transpositionTableSize);
+            if(!game.solve(heuristic)) {
+                System.out.println("Puzzle " + index + ": no solution found");
+                passed[0] = false;
+            }
+
+            SearchStatistics statistics = game.getStatistics();
+            total.merge(statistics);
+            rows.add((index + "," + length + "," + statistics.toCsvRow()).split(",", -1));
+        };
+
+        if(BinaryCorpusReader.isBinaryCorpus(corpusFile)) {
+            try(BinaryCorpusReader reader = new BinaryCorpusReader(corpusFile)) {
+                int invalid = reader.validate();
+                if(invalid >= 0) {
+                    throw new IOException("Puzzle " + invalid + ": tiles must be 0-8 with no duplicates in " + corpusFile);
+                }
+                reader.forEach(solver, PackedBoard.pack(DEFAULT_GOAL));
+            }
+        } else {
+            ArrayList<int[]> corpus = readCorpus(corpusFile);
+            for(int index = 0; index < corpus.size(); index++) {
+                int[] line = corpus.get(index);
+                int[] startTiles = new int[PackedBoard.CELLS];
+                int[] goalTiles = new int[PackedBoard.CELLS];
+                System.arraycopy(line, 0, startTiles, 0, PackedBoard.CELLS);
+                System.arraycopy(line, PackedBoard.CELLS, goalTiles, 0, PackedBoard.CELLS);
+                solver.accept(index, PackedBoard.pack(startTiles), PackedBoard.pack(goalTiles),
+                        line[2 * PackedBoard.CELLS]);
+            }
+        }
+
+        try(PrintWriter out = new PrintWriter(reportFile)) {
+            out.println(REPORT_HEADER);
+            for(String[] row : rows) {
+                out.println(String.join(",", row));
+            }
+        }
+        System.out.println("Solved " + rows.size() + " puzzles, report written to " + reportFile);
+        System.out.println(SearchStatistics.CSV_HEADER);
+        System.out.println(total.toCsvRow());
+        MetricsRegistry.getDefault().dump(System.out);
+
+        if(baselineFile != null) {
+            passed[0] &= compareToBaseline(rows, readReport(baselineFile), thresholdPercent);
+        }
+        return passed[0];
+    }
+
+
+    /**
+     * Compares the rows of a report to a baseline. Node expansions are
+     * deterministic and are compared per puzzle; time is noisy and is
+     * compared over the whole corpus.
+     * @param rows the rows of the new report
+     * @param baseline the rows of the baseline, keyed by index, heuristic and mode
+     * @param thresholdPercent the allowed regression in percent
+     * @return boolean returns false if anything regressed
+     */
+    private static boolean compareToBaseline(ArrayList<String[]> rows, HashMap<String, String[]> baseline,
+            double thresholdPercent) {
+        double limit = 1.0 + thresholdPercent / 100.0;
+        boolean passed = true;
+        long time = 0;
+        long baselineTime = 0;
+
+        String[] header = REPORT_HEADER.split(",");
+        int expandedColumn = column("expanded");
+        int timeColumn = column("timeNanos");
+        String[] baselineHeader = baseline.get("header");
+
+        for(String[] row : rows) {
+            String[] old = baseline.get(key(header, row));
+            if(old == null) {
+                continue;
+            }
+            long expanded = Long.parseLong(row[expandedColumn]);
+            long oldExpanded = Long.parseLong(old[column(baselineHeader, "expanded")]);
+            if(expanded > oldExpanded * limit) {
+                System.out.println("Regression on puzzle " + row[0] + ": expanded " + expanded
+                        + " nodes, baseline " + oldExpanded);
+                passed = false;
+            }
+            time += Long.parseLong(row[timeColumn]);
+            baselineTime += Long.parseLong(old[column(baselineHeader, "timeNanos")]);
+        }
+
+        if(time > baselineTime * limit) {
+            System.out.println("Regression in total time: " + time / 1000000 + " ms, baseline "
+                    + baselineTime / 1000000 + " ms");
+            passed = false;
+        }
+        System.out.println(passed ? "No regressions against baseline" : "Regressions found against baseline");
+        return passed;
+    }
+
+
+    /**
+     * Builds the key matching a report row to its baseline row. Reports
+     * from before search modes existed were all AStar.
+     * @param header the column names of the report
+     * @param row the report row
+     * @return String the index, heuristic and mode of the row
+     */
+    private static String key(String[] header, String[] row) {
+        int modeColumn = column(header, "mode");
+        String mode = modeColumn >= 0 ? row[modeColumn] : "AStar";
+        return row[column(header, "index")] + "," + row[column(header, "heuristic")] + "," + mode;
+    }
+
+
+    /**
+     * Finds a column of the report by name
+     * @param name the column name
+     * @return int the column index
+     */
+    private static int column(String name) {
+        return column(REPORT_HEADER.split(","), name);
+    }
+
+
+    /**
+     * Finds a column of a report header by name
+     * @param header the column names
+     * @param name the column name
+     * @return int the column index, or -1 if missing
+     */
+    private static int column(String[] header, String name) {
+        for(int i = 0; i < header.length; i++) {
+            if(header[i].equals(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+
+    /**
+     * Reads a corpus file into arrays of Start tiles, Goal tiles, and number of moves
+     * @param corpusFile the corpus to read
+     * @return ArrayList<int[]> one array of 19 values per puzzle
+     * @throws IOException if the file cannot be read or a line is not a valid puzzle
+     */
+    public static ArrayList<int[]> readCorpus(String corpusFile) throws IOException {
+        ArrayList<int[]> corpus = new ArrayList<>();
+        try(BufferedReader in = new BufferedReader(new FileReader(corpusFile))) {
+            String line;
+            int lineNumber = 0;
+            while((line = in.readLine()) != null) {
+                lineNumber++;
+                line = line.trim();
+                if(line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] parts = line.split("\\s+");
+                if(parts.length != 2 * PackedBoard.CELLS + 1) {
+                    throw new IOException("Line " + lineNumber + ": expected " + (2 * PackedBoard.CELLS + 1)
+                            + " values, found " + parts.length);
+                }
+                BinaryCorpus.packValidated(parts, 0, lineNumber);
+                BinaryCorpus.packValidated(parts, PackedBoard.CELLS, lineNumber);
+                int[] values = new int[parts.length];
+                for(int i = 0; i < parts.length; i++) {
+                    values[i] = Integer.parseInt(parts[i]);
+                }
+                corpus.add(values);
+            }
+        }
+        return corpus;
+    }
+
+
+    /**
+     * Reads a report file into its rows, keyed by index, heuristic and mode.
+     * The column names are stored under the key header.
+     * @param reportFile the report to read
+     * @return HashMap<String, String[]> the rows of the report
+     */
+    private static HashMap<String, String[]> readReport(String reportFile) throws IOException {
+        HashMap<String, String[]> rows = new HashMap<>();
+        try(BufferedReader in = new BufferedReader(new FileReader(reportFile))) {
+            String[] header = in.readLine().split(",");
+            rows.put("header", header);
+
+            String line;
+            while((line = in.readLine()) != null) {
+                String[] row = line.split(",", -1);
+                rows.put(key(header, row), row);
+            }
+        }
+        return rows;
+    }
+}
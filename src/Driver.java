@@ -1,16 +1,71 @@
+import java.io.IOException;
+
 public class Driver {
     
     /** 
      * This method is the Driver for the 8-Puzzle Game
      * 
+     * Optional arguments:
+     *   --checkpoint file interval  saves the search to file every interval expansions
+     *   --resume file [interval]    resumes the search saved in file, and keeps saving it
+     *   --metrics period            prints the solver metrics every period milliseconds
+     *   --mode mode                 solves with AStar (the default), Fringe, PartialExpansion, IDAStar
+     *                               or Perimeter
+     *   --perimeter depth entries   sets the depth and the most grids of the perimeter
+     *   --tt entries                sets the size of the IDA* transposition table
+     *   --batch                     scores the children of each A* expansion in one batch
+     * 
      * @author James Wooten
      * @version 1.0
      * @param args
      */
-    public static void main(String[] args) {
+    public static void main(String[] args) throws IOException {
         EightPuzzleGame game = new EightPuzzleGame();
+        SearchCheckpoint resumeFrom = null;
+        boolean checkpointed = false;
+
+        for(int i = 0; i < args.length; i++) {
+            if(args[i].equals("--checkpoint") && i + 2 < args.length) {
+                game.setCheckpoint(new SearchCheckpoint(args[i + 1], Integer.parseInt(args[i + 2])));
+                checkpointed = true;
+                i += 2;
+            } else if(args[i].equals("--resume") && i + 1 < args.length) {
+                boolean hasInterval = i + 2 < args.length && !args[i + 2].startsWith("--");
+                int interval = hasInterval ? Integer.parseInt(args[i + 2]) : 0;
+                resumeFrom = new SearchCheckpoint(args[i + 1], interval);
+                game.setCheckpoint(resumeFrom);
+                checkpointed = true;
+                i += hasInterval ? 2 : 1;
+            } else if(args[i].equals("--metrics") && i + 1 < args.length) {
+                MetricsRegistry.getDefault().startPeriodicDump(Long.parseLong(args[i + 1]), System.out);
+                i += 1;
+            } else if(args[i].equals("--mode") && i + 1 < args.length) {
+                game.setSearchMode(args[i + 1]);
+                i += 1;
+            } else if(args[i].equals("--perimeter") && i + 2 < args.length) {
+                game.setPerimeter(Integer.parseInt(args[i + 1]), Integer.parseInt(args[i + 2]));
+                i += 2;
+            } else if(args[i].equals("--tt") && i + 1 < args.length) {
+                game.setTranspositionTableSize(Integer.parseInt(args[i + 1]));
+                i += 1;
+            } else if(args[i].equals("--batch")) {
+                game.setBatchEvaluation(true);
+            }
+        }
+
+        //Only the A* search saves checkpoints
+        if(checkpointed && !game.getSearchMode().equals("AStar")) {
+            System.out.println("Checkpoints are only supported with --mode AStar, not " + game.getSearchMode());
+            System.exit(-4);
+        }
+
+        if(resumeFrom != null) {
+            game.resumeGame(resumeFrom);
+        } else {
+            game.run();
+        }
 
-        game.run();
+        MetricsRegistry.getDefault().stopPeriodicDump();
 
     }
 }
@@ -1,3 +1,10 @@
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.HashMap;
+
 
 /*
 * This class represents an 8-Puzzle Game. The goal of the game is to move the available tiles
@@ -8,16 +15,63 @@
 */
 
 public class EightPuzzleGame {
+    private static final String[] DIRECTIONS = {"Up", "Down", "Left", "Right"};
+
     private State current;
     private State start;
     private State goal;
     private int numNodesGenerated = 0;
     private int numNodesExpanded = 0;
+    private int numDuplicatesRejected = 0;
+    private int numReExpansions = 0;
+    private int frontierPeak = 0;
+    private int[] fLayerExpansions = new int[64];
+    private boolean solved = false;
+    private long solveTimeNanos = 0;
+    private long solveAllocatedBytes = 0;
     private String heuristicSelected = "";
+    private String searchMode = "AStar";
+    private boolean batchEvaluation = false;
+    private State[] siblings = new State[DIRECTIONS.length];
     private Heuristics heuristics = new Heuristics();
     private PriorityQueue priorityQueue = new PriorityQueue();
     private SolutionPathStack solutionPath = new SolutionPathStack();
     private StateVisitedHashSet stateVisited = new StateVisitedHashSet();
+    private ArrayDeque<State> fringeNow = new ArrayDeque<>();
+    private ArrayDeque<State> fringeLater = new ArrayDeque<>();
+    private SearchCheckpoint checkpoint;
+    private TranspositionTable transpositionTable;
+    private int transpositionTableSize = 1 << 20;
+    private int numPrunedSubtrees = 0;
+    private long numTranspositionProbes = 0;
+    private long numTranspositionHits = 0;
+    private int firstIteration = 0;
+    private int[] thresholds = new int[TranspositionTable.ITERATIONS_PER_SEARCH];
+    private Perimeter perimeter;
+    private int perimeterDepth = 12;
+    private int perimeterMaxEntries = 1 << 20;
+    private MetricsRegistry metrics = MetricsRegistry.getDefault();
+    private int maxFExpanded = 0;
+    private int reportedExpanded = 0;
+    private int reportedGenerated = 0;
+
+    /**
+     * Constructor for an interactive game. The Start and Goal grids
+     * are asked from the user when the game is run.
+     */
+    public EightPuzzleGame() {
+    }
+
+    /**
+     * Constructor for a game with known Start and Goal grids, used
+     * when solving generated or stored puzzles without user input
+     * @param start the Start State
+     * @param goal the Goal State
+     */
+    public EightPuzzleGame(State start, State goal) {
+        this.start = start;
+        this.goal = goal;
+    }
 
     /**
      * Runs the 8-Puzzle Game
@@ -34,25 +88,12 @@ public class EightPuzzleGame {
         System.out.println("Please enter the goal state");
         this.goal = new State();
 
-        this.current = new State(this.start);
-        this.current.setGScore(0);
-
-        this.current.setParent(null);
-
         System.out.println();
         System.out.println("-----Manhattan-----");
 
         //Run Game using Manhattan Heuristic
         runGame("Manhattan");
 
-        //Reset Values to allow re-run
-        reset();
-        
-        //Reset as root State
-        this.current = new State(this.start);
-        this.current.setGScore(0);
-        this.current.setParent(null);
-
         System.out.println();
         System.out.println("-----Hamming-----");
 
@@ -71,9 +112,22 @@ public class EightPuzzleGame {
     private void reset() {
         this.numNodesExpanded = 0;
         this.numNodesGenerated = 0;
+        this.numDuplicatesRejected = 0;
+        this.numReExpansions = 0;
+        this.numPrunedSubtrees = 0;
+        this.numTranspositionProbes = 0;
+        this.numTranspositionHits = 0;
+        this.frontierPeak = 0;
+        this.fLayerExpansions = new int[64];
+        this.solved = false;
+        this.maxFExpanded = 0;
+        this.reportedExpanded = 0;
+        this.reportedGenerated = 0;
         this.priorityQueue = new PriorityQueue();
         this.solutionPath = new SolutionPathStack();
         this.stateVisited = new StateVisitedHashSet();
+        this.fringeNow = new ArrayDeque<>();
+        this.fringeLater = new ArrayDeque<>();
     }
 
     
@@ -86,41 +140,47 @@ public class EightPuzzleGame {
      */
     private void runGame(String hFunction) {
 
-        //User selected Heuristic
-        this.heuristicSelected = hFunction;
-
-        //Choose g(n) based on user selection
-        if(this.heuristicSelected.equals("Manhattan")) {
-            heuristics.calculateManhattan(current, goal);
-        } else if(this.heuristicSelected.equals("Hamming")){
-            heuristics.calculateHamming(current, goal);
-        } else {
-            System.out.println("Heuristic Not Supported");
-            System.exit(-3);
+        if(!solve(hFunction)) {
+            System.out.println("Unable to find a solution");
+            System.out.println("Number of Nodes Expanded: " + this.numNodesExpanded);
+            System.out.println("Number of Nodes Generated: " + this.numNodesGenerated);
+            System.out.println("Number of Nodes in Frontier: " + getFrontierSize());
+            System.exit(-1);
         }
 
-        //Add to Visited States list to prevent loops
-        this.stateVisited.add(this.current);
+        printSolution();
+    }
 
-        /*
-        * Iterate through rounds of Node expansion and generation of the 
-        * expanded node's children. If not found by the RoundCounter Loop, it
-        * will display that there is not solution found and exit the program
-        */ 
-        int roundCounter = 0;
+    
+    /** 
+     * Resumes the search saved in the checkpoint file and prints the
+     * solution as runGame does
+     * @param checkpoint the checkpoint to resume from
+     * @throws IOException if the checkpoint cannot be read
+     */
+    public void resumeGame(SearchCheckpoint checkpoint) throws IOException {
 
-        while(current.getHScore() != 0) {
-            if(roundCounter == 10000000) {
-                System.out.println("Unable to find a solution");
-                System.out.println("Number of Nodes Expanded: " + this.numNodesExpanded);
-                System.out.println("Number of Nodes in Frontier: " + this.numNodesGenerated);
-                System.exit(-1);
-            }
-            findNextMoves(current);
-            expandNode();
-            roundCounter++;
+        checkpoint.load();
+        System.out.println("-----" + checkpoint.getHeuristic() + " (resumed)-----");
+
+        if(!resumeLoaded(checkpoint)) {
+            System.out.println("Unable to find a solution");
+            System.out.println("Number of Nodes Expanded: " + this.numNodesExpanded);
+            System.out.println("Number of Nodes Generated: " + this.numNodesGenerated);
+            System.out.println("Number of Nodes in Frontier: " + getFrontierSize());
+            System.exit(-1);
         }
 
+        printSolution();
+    }
+
+    
+    /** 
+     * Prints the number of moves, the nodes expanded and in the frontier,
+     * and each State on the path from the Start State to the solution
+     */
+    private void printSolution() {
+
         /*
         * Moves back through the parent nodes (starting with current)
         * to find the best solution path
@@ -131,7 +191,18 @@ public class EightPuzzleGame {
         System.out.println("Solution Found!");
         System.out.println("Minimum Number of Moves: " + this.current.getGScore());
         System.out.println("Number of Nodes Expanded: " + this.numNodesExpanded);
-        System.out.println("Number of Nodes in Frontier: " + this.priorityQueue.getPriorityQueue().size());
+        System.out.println("Number of Nodes in Frontier: " + getFrontierSize());
+        System.out.println(getStatistics());
+        if(this.searchMode.equals("IDAStar")) {
+            System.out.println("Transposition Table: " + this.transpositionTable.getSize() + " entries, "
+                    + this.numTranspositionProbes + " probes, " + this.numTranspositionHits + " hits");
+            System.out.println("Subtrees Pruned: " + this.numPrunedSubtrees);
+        }
+        if(this.searchMode.equals("Perimeter")) {
+            Perimeter p = Perimeter.forGoal(this.goal.pack(), this.perimeterDepth, this.perimeterMaxEntries);
+            System.out.println("Perimeter: " + p.getSize() + " boards within " + p.getDepth()
+                    + " moves, built in " + p.getBuildNanos() / 1000000 + " ms");
+        }
 
         int stateCounter = 0;
 
@@ -143,6 +214,817 @@ public class EightPuzzleGame {
     }
 
     
+    /** 
+     * Solves from the Start State to the Goal State with the selected Heuristic
+     * without printing anything. The search is reset first, so a game can be
+     * solved repeatedly. The time taken and the bytes allocated by the calling
+     * thread are recorded for the solve.
+     * @param hFunction The Heuristic used in finding the solution
+     * @return boolean returns true if a solution was found
+     */
+    public boolean solve(String hFunction) {
+
+        //Reset Values and set the root State
+        reset();
+        this.current = new State(this.start);
+        this.current.setGScore(0);
+        this.current.setParent(null);
+
+        //User selected Heuristic
+        this.heuristicSelected = hFunction;
+
+        //Choose g(n) based on user selection
+        calculateHeuristic(this.current);
+
+        //Add to Visited States list to prevent loops
+        this.stateVisited.add(this.current);
+
+        //The shared transposition table is allocated before the solve is measured
+        if(this.searchMode.equals("IDAStar")) {
+            this.transpositionTable = TranspositionTable.shared(this.transpositionTableSize);
+            this.firstIteration = this.transpositionTable.beginSearch();
+        }
+
+        return measureSearch();
+    }
+
+    
+    /** 
+     * Restores a search from a checkpoint and continues it until it is
+     * solved. The Start and Goal States are taken from the checkpoint.
+     * @param checkpoint the checkpoint to resume from
+     * @return boolean returns true if a solution was found
+     * @throws IOException if the checkpoint cannot be read
+     */
+    public boolean resume(SearchCheckpoint checkpoint) throws IOException {
+        checkpoint.load();
+        return resumeLoaded(checkpoint);
+    }
+
+    
+    /** 
+     * Restores a search from a checkpoint that has already been loaded
+     * and continues it until it is solved
+     * @param checkpoint the loaded checkpoint
+     * @return boolean returns true if a solution was found
+     */
+    private boolean resumeLoaded(SearchCheckpoint checkpoint) {
+
+        reset();
+        this.searchMode = "AStar";
+        this.start = checkpoint.getStart();
+        this.goal = checkpoint.getGoal();
+        this.heuristicSelected = checkpoint.getHeuristic();
+        this.numNodesExpanded = checkpoint.getNumNodesExpanded();
+        this.numNodesGenerated = checkpoint.getNumNodesGenerated();
+        this.frontierPeak = checkpoint.getFrontierPeak();
+        this.numDuplicatesRejected = checkpoint.getNumDuplicatesRejected();
+        this.maxFExpanded = checkpoint.getMaxFExpanded();
+        this.fLayerExpansions = Arrays.copyOf(checkpoint.getFLayerExpansions(),
+                Math.max(this.fLayerExpansions.length, checkpoint.getFLayerExpansions().length));
+        this.reportedExpanded = this.numNodesExpanded;
+        this.reportedGenerated = this.numNodesGenerated;
+
+        //h(n) is not stored, so recalculate it before rebuilding the frontier
+        for(State s : checkpoint.getVisited()) {
+            calculateHeuristic(s);
+        }
+        for(State s : checkpoint.getFrontier()) {
+            this.priorityQueue.enqueue(s);
+        }
+        this.stateVisited.addAll(checkpoint.getVisited());
+        this.current = checkpoint.getCurrent();
+
+        return measureSearch();
+    }
+
+    
+    /** 
+     * Runs the search, recording the time taken and the bytes allocated
+     * by the calling thread. The solve is recorded as a SolveEvent and
+     * in the MetricsRegistry.
+     * @return boolean returns true if a solution was found
+     */
+    private boolean measureSearch() {
+        SolveEvent event = new SolveEvent();
+        event.begin();
+        long allocatedBefore = getAllocatedBytes();
+        long startTime = System.nanoTime();
+
+        boolean found;
+        if(this.searchMode.equals("Fringe")) {
+            found = searchFringe();
+        } else if(this.searchMode.equals("PartialExpansion")) {
+            found = searchPartialExpansion();
+        } else if(this.searchMode.equals("IDAStar")) {
+            found = searchIDAStar();
+        } else if(this.searchMode.equals("Perimeter")) {
+            found = searchPerimeter();
+        } else {
+            found = search();
+        }
+
+        this.solved = found;
+        this.solveTimeNanos = System.nanoTime() - startTime;
+        this.solveAllocatedBytes = getAllocatedBytes() - allocatedBefore;
+
+        event.end();
+        if(event.shouldCommit()) {
+            event.heuristic = this.heuristicSelected;
+            event.solved = found;
+            event.moves = found ? this.current.getGScore() : -1;
+            event.nodesExpanded = this.numNodesExpanded;
+            event.nodesGenerated = this.numNodesGenerated;
+            event.frontierPeak = this.frontierPeak;
+            event.commit();
+        }
+        recordSolveMetrics();
+
+        if(this.checkpoint != null) {
+            this.checkpoint.finish();
+        }
+        return found;
+    }
+
+    
+    /** 
+     * Runs the A* search from the current State until the Goal State is
+     * expanded, the frontier is exhausted, or the round limit is reached
+     * @return boolean returns true if a solution was found
+     */
+    private boolean search() {
+
+        /*
+        * Iterate through rounds of Node expansion and generation of the 
+        * expanded node's children. If not found by the RoundCounter Loop, or
+        * the frontier runs out of States, there is no solution
+        */ 
+        int roundCounter = this.numNodesExpanded;
+
+        while(current.getHScore() != 0) {
+            if(roundCounter == 10000000) {
+                return false;
+            }
+            findNextMoves(current);
+            this.frontierPeak = Math.max(this.frontierPeak, this.priorityQueue.getPriorityQueue().size());
+            expandNode();
+            if(this.current == null) {
+                return false;
+            }
+            roundCounter++;
+
+            //Save the search every checkpoint interval
+            if(this.checkpoint != null && this.checkpoint.isDue(this.numNodesExpanded)) {
+                this.checkpoint.save(this.heuristicSelected, this.start, this.goal, this.current,
+                        this.numNodesExpanded, this.numNodesGenerated, this.frontierPeak,
+                        this.numDuplicatesRejected, this.maxFExpanded, this.fLayerExpansions,
+                        this.stateVisited, this.priorityQueue);
+            }
+        }
+        return true;
+    }
+
+    
+    /** 
+     * Runs partial expansion A* from the current State. The f(n) of a State in
+     * the frontier is its stored value F, which starts at g(n) + h(n). When a
+     * State is expanded only the children with f(n) equal to F are generated,
+     * and the State goes back into the frontier with F set to the smallest larger
+     * child f(n). Children that would sit in the frontier above the solution
+     * cost are never created. For Manhattan and Hamming the OperatorSelectionTable
+     * gives each child's f(n) without building it; other Heuristics build every
+     * child and keep only the ones that match.
+     * @return boolean returns true if a solution was found
+     */
+    private boolean searchPartialExpansion() {
+        this.priorityQueue = new PriorityQueue(true);
+        OperatorSelectionTable table = OperatorSelectionTable.create(this.heuristicSelected, this.goal.pack());
+        int roundCounter = this.numNodesExpanded;
+
+        while(this.current.getHScore() != 0) {
+            if(roundCounter == 10000000) {
+                return false;
+            }
+            int nextF;
+            if(table != null) {
+                nextF = expandSelected(this.current, table);
+            } else {
+                nextF = expandPartial(this.current);
+            }
+
+            //Put the State back for the children it has not generated yet
+            if(nextF != Integer.MAX_VALUE) {
+                this.current.setFScore(nextF);
+                this.priorityQueue.enqueue(this.current);
+            }
+            this.frontierPeak = Math.max(this.frontierPeak, this.priorityQueue.getPriorityQueue().size());
+            expandNode();
+            if(this.current == null) {
+                return false;
+            }
+            if(this.current.getFScore() > this.current.getGScore() + this.current.getHScore()) {
+                this.numReExpansions++;
+            }
+            roundCounter++;
+        }
+        return true;
+    }
+
+    
+    /** 
+     * Generates the children of a State whose change in f(n) matches its stored
+     * value, using the operator selection table. On the first expansion every
+     * child with f(n) up to F is generated.
+     * @param s the State being expanded
+     * @param table the change in h(n) of each move
+     * @return int the smallest child f(n) above F, or Integer.MAX_VALUE if none
+     */
+    private int expandSelected(State s, OperatorSelectionTable table) {
+        long board = s.pack();
+        int zero = s.getZeroGridLocation()[0] * PackedBoard.SIZE + s.getZeroGridLocation()[1];
+        int f = s.getGScore() + s.getHScore();
+        int selected = s.getFScore() - f;
+        int next = Integer.MAX_VALUE;
+
+        for(int d = 0; d < DIRECTIONS.length; d++) {
+            int cell = PackedBoard.target(zero, DIRECTIONS[d]);
+            if(cell < 0) {
+                continue;
+            }
+            int deltaH = table.delta(PackedBoard.tileAt(board, cell), zero, d);
+            int deltaF = 1 + deltaH;
+            if(deltaF > selected) {
+                next = Math.min(next, deltaF);
+                continue;
+            }
+            if(deltaF < selected && selected != 0) {
+                continue;
+            }
+
+            State child = createChild(s, DIRECTIONS[d]);
+            if(this.stateVisited.contains(child)) {
+                this.numDuplicatesRejected++;
+                continue;
+            }
+            s.getChildren().add(child);
+            child.setHScore(s.getHScore() + deltaH);
+            child.setFScore(child.getGScore() + child.getHScore());
+            this.stateVisited.add(child);
+            this.numNodesGenerated++;
+            this.priorityQueue.enqueue(child);
+        }
+        return next == Integer.MAX_VALUE ? next : f + next;
+    }
+
+    
+    /** 
+     * Generates every child of a State and keeps those whose f(n) matches its
+     * stored value, for Heuristics without an operator selection table. On the
+     * first expansion every child with f(n) up to F is kept.
+     * @param s the State being expanded
+     * @return int the smallest child f(n) above F, or Integer.MAX_VALUE if none
+     */
+    private int expandPartial(State s) {
+        int stored = s.getFScore();
+        boolean first = stored == s.getGScore() + s.getHScore();
+        int next = Integer.MAX_VALUE;
+
+        for(String direction : DIRECTIONS) {
+            if(!canMove(s, direction)) {
+                continue;
+            }
+            State child = createChild(s, direction);
+
+            //Children rejected once are rejected on every expansion, count them once
+            if(this.stateVisited.contains(child)) {
+                if(first) {
+                    this.numDuplicatesRejected++;
+                }
+                continue;
+            }
+            calculateHeuristic(child);
+            if(child.getFScore() > stored) {
+                next = Math.min(next, child.getFScore());
+                continue;
+            }
+            if(child.getFScore() < stored && !first) {
+                continue;
+            }
+            s.getChildren().add(child);
+            this.stateVisited.add(child);
+            this.numNodesGenerated++;
+            this.priorityQueue.enqueue(child);
+        }
+        return next;
+    }
+
+    
+    /** 
+     * Runs perimeter search from the current State. The Perimeter holds every grid
+     * within a set number of moves of the goal with its exact distance, and is built
+     * once per goal. A* runs forward with the exact distance as h(n) inside the
+     * perimeter and at least the perimeter depth plus one outside it, and stops when
+     * it expands a perimeter State. The rest of the path is then read from the table.
+     * @return boolean returns true if a solution was found
+     */
+    private boolean searchPerimeter() {
+        this.perimeter = Perimeter.forGoal(this.goal.pack(), this.perimeterDepth, this.perimeterMaxEntries);
+        calculateHeuristic(this.current);
+        int roundCounter = this.numNodesExpanded;
+
+        while(this.perimeter.distance(this.current.pack()) < 0) {
+            if(roundCounter == 10000000) {
+                this.perimeter = null;
+                return false;
+            }
+            findNextMoves(this.current);
+            this.frontierPeak = Math.max(this.frontierPeak, this.priorityQueue.getPriorityQueue().size());
+            expandNode();
+            if(this.current == null) {
+                this.perimeter = null;
+                return false;
+            }
+            roundCounter++;
+        }
+
+        //Follow the stored moves from the perimeter to the goal
+        while(this.current.getHScore() != 0) {
+            State next = createChild(this.current, this.perimeter.nextMove(this.current.pack()));
+            calculateHeuristic(next);
+            this.current = next;
+        }
+        this.perimeter = null;
+        return true;
+    }
+
+    
+    /** 
+     * Runs IDA* from the current State: depth first searches bounded by an f(n)
+     * threshold, which rises to the smallest f(n) above it after each iteration.
+     * The TranspositionTable cuts off a board reached again in the same iteration
+     * with a g(n) no smaller than before. When an iteration with threshold T fails
+     * the solution costs at least the next threshold, so a board reached with g(n)
+     * in it is at least that threshold minus g(n) from the goal; later iterations
+     * use this as a lower bound to cut off boards reached by longer paths. The
+     * table is only used for the iteration numbers the search reserved.
+     * @return boolean returns true if a solution was found
+     */
+    private boolean searchIDAStar() {
+        int threshold = this.current.getFScore();
+        State root = this.current;
+        boolean found = false;
+
+        for(int i = 0; ; i++) {
+
+            //Past its reserved iteration numbers the search goes on without the table
+            int iteration = this.firstIteration > 0 && i < this.thresholds.length ? this.firstIteration + i : 0;
+            if(iteration > 0) {
+                this.thresholds[i] = threshold;
+                this.transpositionTable.store(root.pack(), 0, root.getHScore(), iteration);
+            }
+
+            int next = searchDepthFirst(root, threshold, iteration, 1);
+            if(next < 0) {
+                found = true;
+                break;
+            }
+            if(next == Integer.MAX_VALUE || this.numNodesExpanded >= 10000000) {
+                break;
+            }
+            threshold = next;
+        }
+
+        this.metrics.counter("transposition.probes").add(this.numTranspositionProbes);
+        this.metrics.counter("transposition.hits").add(this.numTranspositionHits);
+        this.metrics.counter("transposition.pruned").add(this.numPrunedSubtrees);
+        return found;
+    }
+
+    
+    /** 
+     * Searches below a State depth first up to the threshold
+     * @param s the State to search from
+     * @param threshold the largest f(n) to expand
+     * @param iteration the current iteration, or 0 if the table is not used
+     * @param depth the number of States on the current path
+     * @return int -1 if the Goal State was found, otherwise the smallest f(n) over the threshold
+     */
+    private int searchDepthFirst(State s, int threshold, int iteration, int depth) {
+        if(s.getFScore() > threshold) {
+            return s.getFScore();
+        }
+        if(s.getHScore() == 0) {
+            this.current = s;
+            return -1;
+        }
+        if(this.numNodesExpanded >= 10000000) {
+            return Integer.MAX_VALUE;
+        }
+        recordExpansion(s);
+
+        //The frontier of a depth first search is the current path
+        this.frontierPeak = Math.max(this.frontierPeak, depth);
+        int next = Integer.MAX_VALUE;
+
+        for(String direction : DIRECTIONS) {
+            if(!canMove(s, direction)) {
+                continue;
+            }
+            State child = createChild(s, direction);
+            if(s.getParent() != null && child.equals(s.getParent())) {
+                this.numDuplicatesRejected++;
+                continue;
+            }
+            calculateHeuristic(child);
+            this.numNodesGenerated++;
+
+            long board = child.pack();
+            long entry = 0;
+            if(iteration > 0) {
+                entry = this.transpositionTable.probe(board, this.firstIteration, iteration);
+                this.numTranspositionProbes++;
+            }
+            int bound = child.getHScore();
+            if(entry != 0) {
+                this.numTranspositionHits++;
+                int entryG = TranspositionTable.getG(entry);
+                int entryIteration = TranspositionTable.getIteration(entry);
+
+                //Reached before in this iteration by a path no longer than this one
+                if(entryIteration == iteration && entryG <= child.getGScore()) {
+                    this.numPrunedSubtrees++;
+                    continue;
+                }
+                bound = Math.max(bound, TranspositionTable.getBound(entry));
+                if(entryIteration < iteration) {
+                    bound = Math.max(bound, this.thresholds[entryIteration - this.firstIteration + 1] - entryG);
+                }
+
+                //The bound only prunes, h(n) is left as the Heuristic's value
+                int f = child.getGScore() + bound;
+                if(f > threshold) {
+                    this.numPrunedSubtrees++;
+                    next = Math.min(next, f);
+                    continue;
+                }
+            }
+            if(iteration > 0) {
+                this.transpositionTable.store(board, child.getGScore(), bound, iteration);
+            }
+
+            int result = searchDepthFirst(child, threshold, iteration, depth + 1);
+            if(result < 0) {
+                return result;
+            }
+            next = Math.min(next, result);
+        }
+        return next;
+    }
+
+    
+    /** 
+     * Runs Fringe search from the current State. States with f(n) within the
+     * threshold are expanded depth first from the now list, and those above it
+     * are kept on the later list for the next threshold, which is the smallest
+     * f(n) that was over the last one. A cache of the best g(n) found for each
+     * grid rejects worse duplicates, so no priority queue is needed and no
+     * State is re-expanded the way IDA* re-expands each iteration.
+     * @return boolean returns true if a solution was found
+     */
+    private boolean searchFringe() {
+        HashMap<State, Integer> cache = new HashMap<>();
+        cache.put(this.current, 0);
+        this.fringeNow.add(this.current);
+        int threshold = this.current.getFScore();
+
+        while(!this.fringeNow.isEmpty()) {
+            int nextThreshold = Integer.MAX_VALUE;
+
+            while(!this.fringeNow.isEmpty()) {
+                State s = this.fringeNow.pollFirst();
+
+                //Skip States a cheaper path to the same grid has replaced
+                if(cache.get(s) < s.getGScore()) {
+                    continue;
+                }
+
+                if(s.getFScore() > threshold) {
+                    nextThreshold = Math.min(nextThreshold, s.getFScore());
+                    this.fringeLater.addLast(s);
+                    continue;
+                }
+
+                if(s.getHScore() == 0) {
+                    this.current = s;
+                    return true;
+                }
+
+                recordExpansion(s);
+
+                //Children go to the front of the now list, the first direction on top
+                for(int d = DIRECTIONS.length - 1; d >= 0; d--) {
+                    if(!canMove(s, DIRECTIONS[d])) {
+                        continue;
+                    }
+                    State child = createChild(s, DIRECTIONS[d]);
+                    Integer cached = cache.get(child);
+                    if(cached != null && cached <= child.getGScore()) {
+                        this.numDuplicatesRejected++;
+                        continue;
+                    }
+                    calculateHeuristic(child);
+                    cache.put(child, child.getGScore());
+                    this.numNodesGenerated++;
+                    this.fringeNow.addFirst(child);
+                }
+                this.frontierPeak = Math.max(this.frontierPeak, getFrontierSize());
+            }
+
+            //Move on to the next threshold with the later list
+            threshold = nextThreshold;
+            ArrayDeque<State> swap = this.fringeNow;
+            this.fringeNow = this.fringeLater;
+            this.fringeLater = swap;
+        }
+        return false;
+    }
+
+    
+    /** 
+     * Number of States waiting to be expanded by the current search mode
+     * @return int the frontier size
+     */
+    private int getFrontierSize() {
+        return this.priorityQueue.getPriorityQueue().size() + this.fringeNow.size() + this.fringeLater.size();
+    }
+
+    
+    /** 
+     * Adds the nodes expanded and generated since the last report to the
+     * MetricsRegistry counters, so they advance while a long solve runs
+     */
+    private void reportProgress() {
+        this.metrics.counter("nodes.expanded").add(this.numNodesExpanded - this.reportedExpanded);
+        this.metrics.counter("nodes.generated").add(this.numNodesGenerated - this.reportedGenerated);
+        this.reportedExpanded = this.numNodesExpanded;
+        this.reportedGenerated = this.numNodesGenerated;
+    }
+
+    
+    /** 
+     * Records the finished solve in the MetricsRegistry
+     */
+    private void recordSolveMetrics() {
+        reportProgress();
+        this.metrics.counter(this.solved ? "solves" : "solves.failed").increment();
+        this.metrics.histogram("solve.latency.micros").record(this.solveTimeNanos / 1000);
+        this.metrics.histogram("solve.allocated.bytes").record(this.solveAllocatedBytes);
+        this.metrics.histogram("frontier.peak").record(this.frontierPeak);
+        if(this.solveTimeNanos > 0) {
+            this.metrics.histogram("nodes.per.second").record(this.numNodesExpanded * 1000000000L / this.solveTimeNanos);
+        }
+    }
+
+    
+    /** 
+     * Records the move to a larger f(n) layer as an FLayerEvent and
+     * samples the frontier size
+     * @param f the f(n) of the new layer
+     */
+    private void enterFLayer(int f) {
+        FLayerEvent event = new FLayerEvent();
+        if(event.shouldCommit()) {
+            event.previousF = this.maxFExpanded;
+            event.newF = f;
+            event.nodesExpanded = this.numNodesExpanded;
+            event.frontierSize = getFrontierSize();
+            event.commit();
+        }
+        this.maxFExpanded = f;
+        this.metrics.histogram("frontier.size").record(getFrontierSize());
+        reportProgress();
+    }
+
+    
+    /** 
+     * Calculates h(n) and f(n) for the State with the selected Heuristic
+     * @param s the State to score
+     */
+    private void calculateHeuristic(State s) {
+        if(this.heuristicSelected.equals("Manhattan")) {
+            heuristics.calculateManhattan(s, goal);
+        } else if(this.heuristicSelected.equals("Hamming")){
+            heuristics.calculateHamming(s, goal);
+        } else if(this.heuristicSelected.equals("PatternDatabase")){
+            heuristics.calculatePatternDatabase(s, goal);
+        } else {
+            System.out.println("Heuristic Not Supported");
+            System.exit(-3);
+        }
+
+        //During perimeter search the perimeter gives exact distances near the goal
+        if(this.perimeter != null) {
+            int distance = this.perimeter.distance(s.pack());
+            s.setHScore(distance >= 0 ? distance : Math.max(s.getHScore(), this.perimeter.getDepth() + 1));
+            s.setFScore(s.getGScore() + s.getHScore());
+        }
+    }
+
+    
+    /** 
+     * Setter for the pattern database tables used by the PatternDatabase Heuristic
+     * @param patternDatabase the tables to use
+     */
+    public void setPatternDatabase(AdditivePatternDatabase patternDatabase) {
+        this.heuristics.setPatternDatabase(patternDatabase);
+    }
+
+    
+    /** 
+     * Setter for the search used by solve: AStar (the default) or Fringe
+     * @param searchMode the search to use
+     */
+    public void setSearchMode(String searchMode) {
+        this.searchMode = searchMode;
+    }
+
+    
+    /** 
+     * Setter for scoring the children of each A* expansion in one batch,
+     * which uses the Vector API for Manhattan and Hamming when available
+     * @param batchEvaluation true to score children in batches
+     */
+    public void setBatchEvaluation(boolean batchEvaluation) {
+        this.batchEvaluation = batchEvaluation;
+    }
+
+    
+    /** 
+     * Getter for the search used by solve
+     * @return String
+     */
+    public String getSearchMode() {
+        return this.searchMode;
+    }
+
+    
+    /** 
+     * Setter for the size of the perimeter used by perimeter search
+     * @param depth the number of moves from the goal the perimeter reaches
+     * @param maxEntries the most grids the perimeter may hold
+     */
+    public void setPerimeter(int depth, int maxEntries) {
+        this.perimeterDepth = depth;
+        this.perimeterMaxEntries = maxEntries;
+    }
+
+    
+    /** 
+     * Setter for the number of entries in the transposition table used by IDA*
+     * @param size the number of entries, rounded up to a power of two
+     */
+    public void setTranspositionTableSize(int size) {
+        this.transpositionTableSize = size;
+    }
+
+    
+    /** 
+     * Getter for the transposition table of the last IDA* solve, which is
+     * shared with other solves using the same size
+     * @return TranspositionTable the table, or null if IDA* has not run
+     */
+    public TranspositionTable getTranspositionTable() {
+        return this.transpositionTable;
+    }
+
+    
+    /** 
+     * Getter for the transposition table probes of the last IDA* solve
+     * @return long
+     */
+    public long getNumTranspositionProbes() {
+        return this.numTranspositionProbes;
+    }
+
+    
+    /** 
+     * Getter for the transposition table probes that found their board
+     * in the last IDA* solve
+     * @return long
+     */
+    public long getNumTranspositionHits() {
+        return this.numTranspositionHits;
+    }
+
+    
+    /** 
+     * Getter for the number of subtrees the transposition table cut off
+     * in the last IDA* solve
+     * @return int
+     */
+    public int getNumPrunedSubtrees() {
+        return this.numPrunedSubtrees;
+    }
+
+    
+    /** 
+     * Setter for the checkpoint the search is saved to, or null for none
+     * @param checkpoint the checkpoint to save to
+     */
+    public void setCheckpoint(SearchCheckpoint checkpoint) {
+        this.checkpoint = checkpoint;
+    }
+
+    
+    /** 
+     * Bytes allocated so far by the current thread, or 0 if the JVM
+     * does not support allocation counting
+     * @return long the allocated bytes
+     */
+    private static long getAllocatedBytes() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if(bean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) bean).getCurrentThreadAllocatedBytes();
+        }
+        return 0;
+    }
+
+    
+    /** 
+     * Builds the report for the last solve
+     * @return SearchStatistics the statistics of the last solve
+     */
+    public SearchStatistics getStatistics() {
+        return new SearchStatistics(this.heuristicSelected, this.searchMode, this.solved ? this.current : null,
+                this.numNodesExpanded, this.numReExpansions, this.numNodesGenerated, this.numDuplicatesRejected, this.frontierPeak,
+                this.fLayerExpansions, this.solveTimeNanos, this.solveAllocatedBytes);
+    }
+
+    
+    /** 
+     * Getter for the State the last solve ended on
+     * @return State the Goal State with its parents, if solved
+     */
+    public State getCurrent() {
+        return this.current;
+    }
+
+    
+    /** 
+     * Getter for the number of Nodes expanded by the last solve
+     * @return int
+     */
+    public int getNumNodesExpanded() {
+        return this.numNodesExpanded;
+    }
+
+    
+    /** 
+     * Getter for the number of expansions of States expanded before
+     * by the last solve, which only partial expansion A* does
+     * @return int
+     */
+    public int getNumReExpansions() {
+        return this.numReExpansions;
+    }
+
+    
+    /** 
+     * Getter for the number of Nodes generated by the last solve
+     * @return int
+     */
+    public int getNumNodesGenerated() {
+        return this.numNodesGenerated;
+    }
+
+    
+    /** 
+     * Getter for the largest frontier size seen during the last solve
+     * @return int
+     */
+    public int getFrontierPeak() {
+        return this.frontierPeak;
+    }
+
+    
+    /** 
+     * Getter for the wall time of the last solve
+     * @return long the time in nanoseconds
+     */
+    public long getSolveTimeNanos() {
+        return this.solveTimeNanos;
+    }
+
+    
+    /** 
+     * Getter for the bytes allocated by the last solve
+     * @return long
+     */
+    public long getSolveAllocatedBytes() {
+        return this.solveAllocatedBytes;
+    }
+
+    
     /** 
      * Pushes the Current state onto the SolutionPath Stack
      * and recursively adds each parent up to the root node
@@ -168,30 +1050,103 @@ public class EightPuzzleGame {
      */
     private void findNextMoves(State current) {
 
-        //Get X and Y coords for Zero value
-        int y = this.current.getZeroGridLocation()[0];
-        int x = this.current.getZeroGridLocation()[1];
-        
-        //if(y!= 0) Move Up
-        if(y != 0) {
-            generateChild(current, "Up");
+        //The perimeter adjusts h(n) one State at a time, so it does not batch
+        if(this.batchEvaluation && this.perimeter == null) {
+            findNextMovesBatch(current);
+            return;
         }
-        
-        //if(y!= 2) Move Down
-        if(y != 2) {
-            generateChild(current, "Down");
+
+        //Generate a child in each direction the Zero value can move
+        for(String direction : DIRECTIONS) {
+            if(canMove(current, direction)) {
+                generateChild(current, direction);
+            }
+        }
+    
+    }
+
+    
+    /** 
+     * Generates the children as findNextMoves does, but scores all the new
+     * children in one batch before adding them to the priority queue in the
+     * same order
+     * @param current the Current State to check available moves
+     */
+    private void findNextMovesBatch(State current) {
+        int count = 0;
+
+        for(String direction : DIRECTIONS) {
+            if(!canMove(current, direction)) {
+                continue;
+            }
+            State child = createChild(current, direction);
+            if(this.stateVisited.contains(child)) {
+                this.numDuplicatesRejected++;
+                continue;
+            }
+            current.getChildren().add(child);
+            this.stateVisited.add(child);
+            this.numNodesGenerated++;
+            this.siblings[count] = child;
+            count++;
         }
 
-        //if(x!= 0) Move Left
-        if(x != 0) {
-            generateChild(current, "Left");
+        //Calculate the h(n) of the siblings together
+        this.heuristics.calculateBatch(this.heuristicSelected, this.siblings, count, this.goal);
+
+        for(int i = 0; i < count; i++) {
+            this.priorityQueue.enqueue(this.siblings[i]);
+            this.siblings[i] = null;
         }
+    }
+
+    
+    /** 
+     * Checks if the Zero value can move in the direction without
+     * leaving the grid
+     * @param s the State to check
+     * @param direction the direction to move the Zero value
+     * @return boolean returns true if the move is on the grid
+     */
+    private boolean canMove(State s, String direction) {
 
-        //if(x!= 2) Move Right
-        if(x != 2) {
-            generateChild(current, "Right");
+        //Get X and Y coords for Zero value
+        int y = s.getZeroGridLocation()[0];
+        int x = s.getZeroGridLocation()[1];
+
+        switch (direction) {
+            case "Up":
+                return y != 0;
+            case "Down":
+                return y != 2;
+            case "Left":
+                return x != 0;
+            case "Right":
+                return x != 2;
+            default:
+                return false;
         }
+    }
+
+
     
+    /** 
+     * Creates a new State node with the parent's grid and the zero
+     * moved in the input direction. h(n) is not calculated.
+     * @param parent the Child's parent State
+     * @param direction The direction to move the zero value
+     * @return State the new child
+     */
+    private State createChild(State parent, String direction) {
+
+        //Create the child node
+        State child = new State(parent);
+
+        //Move the child node's grid in the correct direction
+        child.moveGrid(direction);
+        child.findZero();
+
+        return child;
     }
 
 
@@ -206,13 +1161,11 @@ public class EightPuzzleGame {
     private void generateChild(State parent, String direction) {
 
         //Create the child node
-        State child = new State(parent);
-
-        //Move the child node's grid in the correct direction
-        child.moveGrid(direction);
+        State child = createChild(parent, direction);
 
         //Add the child to the priority queue if not visited
         if(this.stateVisited.contains(child)) {
+            this.numDuplicatesRejected++;
             return;
         }
 
@@ -220,15 +1173,7 @@ public class EightPuzzleGame {
         parent.getChildren().add(child);
 
         //Calculate the h(n)
-        if(this.heuristicSelected.equals("Manhattan")) {   
-            heuristics.calculateManhattan(child, goal);
-        } else if(this.heuristicSelected.equals("Hamming")){
-            heuristics.calculateHamming(child, goal);
-        } else {
-            System.out.println("Heuristic Not Supports");
-            System.exit(-3);
-        }
-        child.findZero();
+        calculateHeuristic(child);
        
         //Add to the visited states list
         this.stateVisited.add(child);
@@ -249,7 +1194,32 @@ public class EightPuzzleGame {
     private void expandNode() {
 
         this.current = this.priorityQueue.poll();
-        this.numNodesExpanded++;
+        recordExpansion(this.current);
         
     }
+
+    
+    /** 
+     * Counts the expansion of a State and its f(n) layer
+     * @param s the State being expanded, or null if the frontier was empty
+     */
+    private void recordExpansion(State s) {
+
+        this.numNodesExpanded++;
+
+        //Count the expansion in its f(n) layer
+        if(s != null) {
+            int f = s.getFScore();
+            if(f >= this.fLayerExpansions.length) {
+                this.fLayerExpansions = Arrays.copyOf(this.fLayerExpansions, 2 * f);
+            }
+            this.fLayerExpansions[f]++;
+
+            if(f > this.maxFExpanded) {
+                enterFLayer(f);
+            } else if((this.numNodesExpanded & 0x3FFF) == 0) {
+                reportProgress();
+            }
+        }
+    }
 }
@@ -0,0 +1,28 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * This class represents the Flight Recorder event for the search moving on to
+ * expand States with a larger f(n) value than any expanded before.
+ * @version 1.0
+ */
+@Name("puzzle.FLayer")
+@Label("f(n) Layer Transition")
+@Category("8-Puzzle")
+@Description("The search started expanding a new f(n) layer")
+public class FLayerEvent extends Event {
+    @Label("Previous f(n)")
+    public int previousF;
+
+    @Label("New f(n)")
+    public int newF;
+
+    @Label("Nodes Expanded")
+    public int nodesExpanded;
+
+    @Label("Frontier Size")
+    public int frontierSize;
+}
@@ -0,0 +1,96 @@
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+
+/**
+ * This class holds the exact number of moves from every reachable grid to a Goal State.
+ * It is found with a single breadth first search backwards from the goal over packed
+ * boards, which on the 8-Puzzle visits all 181,440 reachable grids. The hardest grids
+ * are 31 moves from the goal.
+ * @version 1.0
+ */
+public class GoalDistances {
+    private static final String[] DIRECTIONS = {"Up", "Down", "Left", "Right"};
+
+    private long goal;
+    private HashMap<Long, Integer> distances = new HashMap<>();
+    private ArrayList<ArrayList<Long>> layers = new ArrayList<>();
+
+
+    /**
+     * Constructor that runs the breadth first search from the goal
+     * @param goal the packed Goal board
+     */
+    public GoalDistances(long goal) {
+        this.goal = goal;
+
+        ArrayDeque<Long> queue = new ArrayDeque<>();
+        this.distances.put(goal, 0);
+        queue.add(goal);
+
+        while(!queue.isEmpty()) {
+            long board = queue.poll();
+            int distance = this.distances.get(board);
+            int zero = PackedBoard.zeroIndex(board);
+
+            if(this.layers.size() == distance) {
+                this.layers.add(new ArrayList<>());
+            }
+            this.layers.get(distance).add(board);
+
+            for(String direction : DIRECTIONS) {
+                int target = PackedBoard.target(zero, direction);
+                if(target < 0) {
+                    continue;
+                }
+                long next = PackedBoard.move(board, zero, target);
+                if(!this.distances.containsKey(next)) {
+                    this.distances.put(next, distance + 1);
+                    queue.add(next);
+                }
+            }
+        }
+    }
+
+
+    /**
+     * Returns the exact number of moves from the board to the goal
+     * @param board the packed board
+     * @return int the distance, or -1 if the goal cannot be reached
+     */
+    public int distance(long board) {
+        Integer distance = this.distances.get(board);
+        return distance == null ? -1 : distance;
+    }
+
+
+    /**
+     * Returns every board that is exactly the given number of moves from the goal
+     * @param distance the number of moves
+     * @return ArrayList<Long> the boards at that distance
+     */
+    public ArrayList<Long> layer(int distance) {
+        if(distance < 0 || distance >= this.layers.size()) {
+            return new ArrayList<>();
+        }
+        return this.layers.get(distance);
+    }
+
+
+    /**
+     * Returns the distance of the hardest boards
+     * @return int the largest distance to the goal
+     */
+    public int maxDistance() {
+        return this.layers.size() - 1;
+    }
+
+
+    /**
+     * Getter for the packed Goal board
+     * @return long
+     */
+    public long getGoal() {
+        return this.goal;
+    }
+}
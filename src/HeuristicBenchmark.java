@@ -0,0 +1,132 @@
+import java.util.Locale;
+
+/**
+ * This class is a microbenchmark for the cost of evaluating a heuristic per node. It scores
+ * the same random boards through the State path used by the solver, through the scalar batch
+ * path, and through the vector batch path when the jdk.incubator.vector module is added, and
+ * prints nanoseconds per node for each. Batches of 4 match the children of one expansion;
+ * larger batches show the cost when many frontier nodes are scored together. Before timing,
+ * every evaluator's Manhattan and Hamming scores are checked against the State path.
+ *
+ * Usage:
+ *   HeuristicBenchmark [boards] [rounds]
+ * @version 1.0
+ */
+public class HeuristicBenchmark {
+    private static final int[] DEFAULT_GOAL = {1, 2, 3, 4, 5, 6, 7, 8, 0};
+
+
+    /**
+     * Runs the benchmark
+     * @param args optionally the number of boards and the number of timed rounds
+     */
+    public static void main(String[] args) {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 1 << 16;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+
+        PuzzleGenerator generator = new PuzzleGenerator(1, DEFAULT_GOAL);
+        State goal = new State(DEFAULT_GOAL);
+        long[] boards = new long[n];
+        State[] states = new State[n];
+        for(int i = 0; i < n; i++) {
+            int[] tiles = generator.randomPermutation();
+            boards[i] = PackedBoard.pack(tiles);
+            states[i] = new State(tiles);
+        }
+
+        Heuristics heuristics = new Heuristics();
+        BatchHeuristics scalar = new BatchHeuristics(goal.pack());
+        BatchHeuristics best = BatchHeuristics.create(goal.pack());
+        int[] expectedManhattan = new int[n];
+        int[] expectedHamming = new int[n];
+        int[] out = new int[n];
+
+        System.out.println("Vector module available: " + BatchHeuristics.isVectorAvailable()
+                + ", using " + best.getName());
+
+        //State path, as called once per child by the solver
+        for(int i = 0; i < n; i++) {
+            heuristics.calculateHamming(states[i], goal);
+            expectedHamming[i] = states[i].getHScore();
+            heuristics.calculateManhattan(states[i], goal);
+            expectedManhattan[i] = states[i].getHScore();
+        }
+        report("Manhattan State", time(rounds, n, () -> {
+            for(int i = 0; i < n; i++) {
+                heuristics.calculateManhattan(states[i], goal);
+            }
+        }));
+
+        for(int batch : new int[] {4, 1024}) {
+            long[] chunk = new long[batch];
+            int[] chunkOut = new int[batch];
+            BatchHeuristics[] evaluators = BatchHeuristics.isVectorAvailable()
+                    ? new BatchHeuristics[] {scalar, best} : new BatchHeuristics[] {scalar};
+            for(BatchHeuristics evaluator : evaluators) {
+                evaluator.manhattan(boards, n, out);
+                check(evaluator.getName() + " Manhattan", out, expectedManhattan);
+                evaluator.hamming(boards, n, out);
+                check(evaluator.getName() + " Hamming", out, expectedHamming);
+                report("Manhattan " + evaluator.getName() + " batch " + batch, time(rounds, n, () -> {
+                    for(int i = 0; i + batch <= n; i += batch) {
+                        System.arraycopy(boards, i, chunk, 0, batch);
+                        evaluator.manhattan(chunk, batch, chunkOut);
+                    }
+                }));
+                report("Hamming " + evaluator.getName() + " batch " + batch, time(rounds, n, () -> {
+                    for(int i = 0; i + batch <= n; i += batch) {
+                        System.arraycopy(boards, i, chunk, 0, batch);
+                        evaluator.hamming(chunk, batch, chunkOut);
+                    }
+                }));
+            }
+        }
+    }
+
+
+    /**
+     * Times the work over several rounds after warming it up
+     * @param rounds the number of timed rounds
+     * @param n the number of nodes in a round
+     * @param work the work for one round
+     * @return double the best time per node in nanoseconds
+     */
+    private static double time(int rounds, int n, Runnable work) {
+        for(int i = 0; i < rounds; i++) {
+            work.run();
+        }
+        double best = Double.MAX_VALUE;
+        for(int i = 0; i < rounds; i++) {
+            long startTime = System.nanoTime();
+            work.run();
+            best = Math.min(best, (double) (System.nanoTime() - startTime) / n);
+        }
+        return best;
+    }
+
+
+    /**
+     * Checks batch scores against the scores of the State path
+     * @param name the evaluator and Heuristic, for the error message
+     * @param out the batch scores
+     * @param expected the scores from the State path
+     */
+    private static void check(String name, int[] out, int[] expected) {
+        for(int i = 0; i < expected.length; i++) {
+            if(out[i] != expected[i]) {
+                throw new IllegalStateException(name + " scored board " + i + " as "
+                        + out[i] + ", expected " + expected[i]);
+            }
+        }
+    }
+
+
+    /**
+     * Prints one result line
+     * @param name the case
+     * @param nanos the time per node
+     */
+    private static void report(String name, double nanos) {
+        System.out.println(String.format(Locale.ROOT, "%-40s %8.2f ns/node", name, nanos));
+    }
+}
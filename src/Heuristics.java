@@ -4,11 +4,16 @@
 * necessary by each available tile to reach the goal orientation. The second heuristic, which is referred to as
 * Hamming heuristic within this program simply counts how many of the tiles are in the incorrect location.
 * The final value used for comparison is obtained through f(n) = g(n) + h(n) where g(n) is the steps taken and
-* h(n) is the value of the chosen heuristic.
+* h(n) is the value of the chosen heuristic. The third heuristic adds up the values of pattern databases for
+* disjoint groups of tiles, which is never below Manhattan and is much closer to the true distance.
 * @author James Wooten
 * @version 1.0
 */
 public class Heuristics {
+    private AdditivePatternDatabase patternDatabase;
+    private BatchHeuristics batchHeuristics;
+    private long[] batchBoards = new long[4];
+    private int[] batchScores = new int[4];
     
     
     /** 
@@ -81,6 +86,75 @@ public class Heuristics {
         current.setHScore(hScore);
         current.setFScore(current.getGScore() + current.getHScore());
     }
-    
-    
+
+
+    /** 
+     * Calculates the sum of the pattern database values for the current grid. If no
+     * tables are set for the goal, they are loaded from the directory in the
+     * puzzle.pdb.dir property (default pdb) or built in memory.
+     * @param current the current game state
+     * @param goal the goal game state
+     */
+    public void calculatePatternDatabase(State current, State goal) {
+        long goalBoard = goal.pack();
+        if(this.patternDatabase == null || this.patternDatabase.getGoal() != goalBoard) {
+            this.patternDatabase = AdditivePatternDatabase.loadOrBuild(goalBoard,
+                    AdditivePatternDatabase.DEFAULT_PARTITION, System.getProperty("puzzle.pdb.dir", "pdb"));
+        }
+        current.setHScore(this.patternDatabase.lookup(current.pack()));
+        current.setFScore(current.getGScore() + current.getHScore());
+    }
+
+
+    /** 
+     * Calculates h(n) and f(n) for a batch of States at once, such as the children
+     * of one expansion. Manhattan and Hamming go through BatchHeuristics, which uses
+     * the Vector API when it is available; other heuristics are scored one by one.
+     * @param hFunction the heuristic to calculate
+     * @param states the States to score
+     * @param count the number of States in the batch
+     * @param goal the goal game state
+     */
+    public void calculateBatch(String hFunction, State[] states, int count, State goal) {
+        if(hFunction.equals("PatternDatabase")) {
+            for(int i = 0; i < count; i++) {
+                calculatePatternDatabase(states[i], goal);
+            }
+            return;
+        }
+
+        long goalBoard = goal.pack();
+        if(this.batchHeuristics == null || this.batchHeuristics.getGoal() != goalBoard) {
+            this.batchHeuristics = BatchHeuristics.create(goalBoard);
+        }
+        if(count > this.batchBoards.length) {
+            this.batchBoards = new long[count];
+            this.batchScores = new int[count];
+        }
+
+        for(int i = 0; i < count; i++) {
+            this.batchBoards[i] = states[i].pack();
+        }
+        if(hFunction.equals("Manhattan")) {
+            this.batchHeuristics.manhattan(this.batchBoards, count, this.batchScores);
+        } else if(hFunction.equals("Hamming")) {
+            this.batchHeuristics.hamming(this.batchBoards, count, this.batchScores);
+        } else {
+            System.out.println("Heuristic Not Supported");
+            System.exit(-3);
+        }
+        for(int i = 0; i < count; i++) {
+            states[i].setHScore(this.batchScores[i]);
+            states[i].setFScore(states[i].getGScore() + states[i].getHScore());
+        }
+    }
+
+
+    /** 
+     * Setter for the pattern database tables
+     * @param patternDatabase the tables to use
+     */
+    public void setPatternDatabase(AdditivePatternDatabase patternDatabase) {
+        this.patternDatabase = patternDatabase;
+    }
 }
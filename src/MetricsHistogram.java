@@ -0,0 +1,88 @@
+import java.util.Locale;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * This class represents a histogram of recorded values for the MetricsRegistry.
+ * Values are counted in power of two buckets, so recording is a single LongAdder
+ * increment in the bucket plus the running count and sum, and many threads can
+ * record at once without contention.
+ * @version 1.0
+ */
+public class MetricsHistogram {
+    private static final int BUCKETS = 64;
+
+    private LongAdder[] buckets = new LongAdder[BUCKETS];
+    private LongAdder count = new LongAdder();
+    private LongAdder sum = new LongAdder();
+
+
+    /**
+     * Constructor for an empty histogram
+     */
+    public MetricsHistogram() {
+        for(int i = 0; i < BUCKETS; i++) {
+            this.buckets[i] = new LongAdder();
+        }
+    }
+
+
+    /**
+     * Records a value. Negative values are counted as zero.
+     * @param value the value to record
+     */
+    public void record(long value) {
+        value = Math.max(0, value);
+        this.buckets[BUCKETS - Long.numberOfLeadingZeros(value)].increment();
+        this.count.increment();
+        this.sum.add(value);
+    }
+
+
+    /**
+     * Getter for the number of values recorded
+     * @return long
+     */
+    public long getCount() {
+        return this.count.sum();
+    }
+
+
+    /**
+     * Average of the values recorded
+     * @return double the mean, or 0 if nothing was recorded
+     */
+    public double getMean() {
+        long n = this.count.sum();
+        return n == 0 ? 0 : (double) this.sum.sum() / n;
+    }
+
+
+    /**
+     * Upper bound of the bucket holding the given percentile of values
+     * @param percentile the percentile between 0 and 100
+     * @return long the bucket upper bound
+     */
+    public long getPercentile(double percentile) {
+        long n = this.count.sum();
+        long wanted = (long) Math.ceil(n * percentile / 100.0);
+        long seen = 0;
+        for(int i = 0; i < BUCKETS; i++) {
+            seen += this.buckets[i].sum();
+            if(seen >= wanted && seen > 0) {
+                return i == 0 ? 0 : (1L << i) - 1;
+            }
+        }
+        return Long.MAX_VALUE;
+    }
+
+
+    /**
+     * Returns the count, mean and percentiles on one line
+     * @return String
+     */
+    @Override
+    public String toString() {
+        return "count=" + getCount() + " mean=" + String.format(Locale.ROOT, "%.1f", getMean())
+                + " p50<=" + getPercentile(50) + " p90<=" + getPercentile(90) + " p99<=" + getPercentile(99);
+    }
+}
@@ -0,0 +1,102 @@
+import java.io.PrintStream;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * This class holds the named counters and histograms updated by the solver while it runs.
+ * Counters are LongAdders, which spread updates across cells so solves on many threads do
+ * not contend, and are only read when the registry is dumped. The registry can be printed
+ * on demand or on a fixed period by a background thread.
+ * @version 1.0
+ */
+public class MetricsRegistry {
+    private static final MetricsRegistry DEFAULT = new MetricsRegistry();
+
+    private ConcurrentHashMap<String, LongAdder> counters = new ConcurrentHashMap<>();
+    private ConcurrentHashMap<String, MetricsHistogram> histograms = new ConcurrentHashMap<>();
+    private ScheduledExecutorService dumper;
+    private long createdNanos = System.nanoTime();
+
+
+    /**
+     * Getter for the registry shared by every game
+     * @return MetricsRegistry
+     */
+    public static MetricsRegistry getDefault() {
+        return DEFAULT;
+    }
+
+
+    /**
+     * Returns the counter with the name, creating it on first use
+     * @param name the counter name
+     * @return LongAdder the counter
+     */
+    public LongAdder counter(String name) {
+        return this.counters.computeIfAbsent(name, k -> new LongAdder());
+    }
+
+
+    /**
+     * Returns the histogram with the name, creating it on first use
+     * @param name the histogram name
+     * @return MetricsHistogram the histogram
+     */
+    public MetricsHistogram histogram(String name) {
+        return this.histograms.computeIfAbsent(name, k -> new MetricsHistogram());
+    }
+
+
+    /**
+     * Prints every counter and histogram in name order, with the
+     * expansion rate over the time the registry has existed
+     * @param out the stream to print to
+     */
+    public void dump(PrintStream out) {
+        double seconds = (System.nanoTime() - this.createdNanos) / 1e9;
+        out.println("-----Metrics-----");
+        for(Map.Entry<String, LongAdder> entry : new TreeMap<>(this.counters).entrySet()) {
+            out.println(entry.getKey() + ": " + entry.getValue().sum());
+        }
+        if(this.counters.containsKey("nodes.expanded")) {
+            out.println("nodes.expanded.per.second: " + String.format(Locale.ROOT, "%.0f",
+                    this.counters.get("nodes.expanded").sum() / seconds));
+        }
+        for(Map.Entry<String, MetricsHistogram> entry : new TreeMap<>(this.histograms).entrySet()) {
+            out.println(entry.getKey() + ": " + entry.getValue());
+        }
+    }
+
+
+    /**
+     * Starts printing the registry every period on a background thread
+     * @param periodMillis the time between dumps
+     * @param out the stream to print to
+     */
+    public synchronized void startPeriodicDump(long periodMillis, PrintStream out) {
+        stopPeriodicDump();
+        this.dumper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "metrics-dump");
+            t.setDaemon(true);
+            return t;
+        });
+        this.dumper.scheduleAtFixedRate(() -> dump(out), periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+    }
+
+
+    /**
+     * Stops the periodic dump if one is running
+     */
+    public synchronized void stopPeriodicDump() {
+        if(this.dumper != null) {
+            this.dumper.shutdownNow();
+            this.dumper = null;
+        }
+    }
+}
@@ -0,0 +1,121 @@
+/**
+ * This class represents the operator selection table used by partial expansion A*. For every
+ * tile, zero position and direction it stores the change in h(n) when the zero moves that way,
+ * so the f(n) of each child is known from its parent without building the child. This works for
+ * Heuristics that add up a cost for each tile in its cell, which are Manhattan and Hamming.
+ * @version 1.0
+ */
+public class OperatorSelectionTable {
+    private static final int CELLS = PackedBoard.CELLS;
+    private static final String[] DIRECTIONS = {"Up", "Down", "Left", "Right"};
+
+    private long goal;
+    private String heuristic;
+
+    //Change in h(n) indexed by tile, zero cell and direction
+    private byte[] deltas = new byte[16 * CELLS * DIRECTIONS.length];
+
+
+    /**
+     * Constructor for the table of a Heuristic and Goal board
+     * @param heuristic Manhattan or Hamming
+     * @param goal the packed Goal board
+     */
+    private OperatorSelectionTable(String heuristic, long goal) {
+        this.heuristic = heuristic;
+        this.goal = goal;
+
+        for(int zero = 0; zero < CELLS; zero++) {
+            for(int d = 0; d < DIRECTIONS.length; d++) {
+                int cell = PackedBoard.target(zero, DIRECTIONS[d]);
+                if(cell < 0) {
+                    continue;
+                }
+
+                //The tile on cell slides into the zero cell and the zero takes its place
+                for(int tile = 0; tile < CELLS; tile++) {
+                    int delta = cost(tile, zero) + cost(0, cell) - cost(tile, cell) - cost(0, zero);
+                    this.deltas[index(tile, zero, d)] = (byte) delta;
+                }
+            }
+        }
+    }
+
+
+    /**
+     * Builds the table for the Heuristic
+     * @param heuristic the Heuristic used by the search
+     * @param goal the packed Goal board
+     * @return OperatorSelectionTable the table, or null if the Heuristic is not
+     * a sum of tile costs
+     */
+    public static OperatorSelectionTable create(String heuristic, long goal) {
+        if(!heuristic.equals("Manhattan") && !heuristic.equals("Hamming")) {
+            return null;
+        }
+        return new OperatorSelectionTable(heuristic, goal);
+    }
+
+
+    /**
+     * Returns the change in h(n) when the zero at the cell moves in the direction
+     * @param tile the tile the zero swaps with
+     * @param zero the cell of the zero
+     * @param direction the index of the direction in Up, Down, Left, Right
+     * @return int the h(n) of the child minus the h(n) of the parent
+     */
+    public int delta(int tile, int zero, int direction) {
+        return this.deltas[index(tile, zero, direction)];
+    }
+
+
+    /**
+     * Cost the Heuristic gives a tile on a cell, matching Heuristics
+     * @param tile the tile
+     * @param cell the cell it is on
+     * @return int
+     */
+    private int cost(int tile, int cell) {
+        int goalCell = 0;
+        for(int k = 0; k < CELLS; k++) {
+            if(PackedBoard.tileAt(this.goal, k) == tile) {
+                goalCell = k;
+            }
+        }
+
+        if(this.heuristic.equals("Hamming")) {
+            return goalCell == cell ? 0 : 1;
+        }
+        if(tile == 0) {
+            return 0;
+        }
+        int size = PackedBoard.SIZE;
+        return Math.abs(goalCell / size - cell / size) + Math.abs(goalCell % size - cell % size);
+    }
+
+
+    /**
+     * Index of a tile, zero cell and direction in the table
+     * @return int
+     */
+    private static int index(int tile, int zero, int direction) {
+        return (tile * CELLS + zero) * DIRECTIONS.length + direction;
+    }
+
+
+    /**
+     * Getter for the packed Goal board
+     * @return long
+     */
+    public long getGoal() {
+        return this.goal;
+    }
+
+    /**
+     * Getter for the Heuristic
+     * @return String
+     */
+    public String getHeuristic() {
+        return this.heuristic;
+    }
+}
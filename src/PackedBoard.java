@@ -0,0 +1,168 @@
+/**
+ * This class holds the helpers used to store an 8-Puzzle grid in a single long.
+ * Each tile is stored in four bits in row-major order, so the tile at grid index k
+ * (row k / 3, column k % 3) occupies bits 4k to 4k + 3. A packed board is cheap to
+ * hash, compare, and store in bulk, and is used wherever a State object would be
+ * too heavy.
+ * @version 1.0
+ */
+public class PackedBoard {
+    public static final int SIZE = 3;
+    public static final int CELLS = SIZE * SIZE;
+
+
+    /**
+     * Packs a one dimensional, row-major array of tiles into a long
+     * @param tiles the tiles to pack
+     * @return long the packed board
+     */
+    public static long pack(int[] tiles) {
+        long board = 0;
+        for(int k = 0; k < CELLS; k++) {
+            board |= ((long) tiles[k]) << (4 * k);
+        }
+        return board;
+    }
+
+
+    /**
+     * Packs a two dimensional grid into a long
+     * @param grid the grid to pack
+     * @return long the packed board
+     */
+    public static long pack(int[][] grid) {
+        long board = 0;
+        for(int i = 0; i < SIZE; i++) {
+            for(int j = 0; j < SIZE; j++) {
+                board |= ((long) grid[i][j]) << (4 * (i * SIZE + j));
+            }
+        }
+        return board;
+    }
+
+
+    /**
+     * Unpacks a board into a one dimensional, row-major array of tiles
+     * @param board the packed board
+     * @return int[] the tiles of the board
+     */
+    public static int[] unpack(long board) {
+        int[] tiles = new int[CELLS];
+        for(int k = 0; k < CELLS; k++) {
+            tiles[k] = tileAt(board, k);
+        }
+        return tiles;
+    }
+
+
+    /**
+     * Returns the tile stored at the grid index
+     * @param board the packed board
+     * @param k the row-major grid index
+     * @return int the tile at the index
+     */
+    public static int tileAt(long board, int k) {
+        return (int) ((board >>> (4 * k)) & 0xF);
+    }
+
+
+    /**
+     * Finds the grid index of the zero tile
+     * @param board the packed board
+     * @return int the row-major index of the zero tile
+     */
+    public static int zeroIndex(long board) {
+        for(int k = 0; k < CELLS; k++) {
+            if(tileAt(board, k) == 0) {
+                return k;
+            }
+        }
+        return -1;
+    }
+
+
+    /**
+     * Swaps the zero tile at index zero with the tile at index target
+     * @param board the packed board
+     * @param zero the index of the zero tile
+     * @param target the index of the tile to slide into the blank
+     * @return long the board after the move
+     */
+    public static long move(long board, int zero, int target) {
+        long tile = (board >>> (4 * target)) & 0xF;
+        board &= ~(0xFL << (4 * target));
+        return board | (tile << (4 * zero));
+    }
+
+
+    /**
+     * Returns the index the zero tile moves to in the given direction,
+     * or -1 if the move would leave the grid
+     * @param zero the index of the zero tile
+     * @param direction one of Up, Down, Left, or Right
+     * @return int the index of the tile swapped with zero
+     */
+    public static int target(int zero, String direction) {
+        int y = zero / SIZE;
+        int x = zero % SIZE;
+
+        switch (direction) {
+            case "Up":
+                return y != 0 ? zero - SIZE : -1;
+            case "Down":
+                return y != SIZE - 1 ? zero + SIZE : -1;
+            case "Left":
+                return x != 0 ? zero - 1 : -1;
+            case "Right":
+                return x != SIZE - 1 ? zero + 1 : -1;
+            default:
+                return -1;
+        }
+    }
+
+
+    /**
+     * Checks that the board holds each tile from 0 to 8 exactly once. Every
+     * tile sets its bit in a mask; a duplicate leaves a bit unset and a tile
+     * above 8 sets a bit outside the mask, so one compare checks the board.
+     * @param board the packed board
+     * @return boolean returns true if the board is a permutation
+     */
+    public static boolean isPermutation(long board) {
+        int mask = 0;
+        for(int k = 0; k < CELLS; k++) {
+            mask |= 1 << ((board >>> (4 * k)) & 0xF);
+        }
+        return mask == (1 << CELLS) - 1 && (board >>> (4 * CELLS)) == 0;
+    }
+
+
+    /**
+     * Checks whether start can reach goal. On a board of odd width this is
+     * the case exactly when both have the same inversion parity, ignoring zero.
+     * @param start the start tiles
+     * @param goal the goal tiles
+     * @return boolean returns true if the goal is reachable
+     */
+    public static boolean isSolvable(int[] start, int[] goal) {
+        return inversions(start) % 2 == inversions(goal) % 2;
+    }
+
+
+    /**
+     * Counts the pairs of non-zero tiles that are out of order
+     * @param tiles the row-major tiles
+     * @return int the number of inversions
+     */
+    public static int inversions(int[] tiles) {
+        int count = 0;
+        for(int i = 0; i < tiles.length; i++) {
+            for(int j = i + 1; j < tiles.length; j++) {
+                if(tiles[i] != 0 && tiles[j] != 0 && tiles[i] > tiles[j]) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,332 @@
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+
+/**
+ * This class represents a pattern database for one group of tiles. For every placement of
+ * the pattern tiles it stores the fewest moves of those tiles needed to bring them to their
+ * goal positions, found by a breadth first search backwards from the goal over the placements.
+ * Moves of other tiles cost nothing, so the values of disjoint patterns can be added together
+ * and still never overestimate the true distance.
+ *
+ * Placements are ranked as partial permutations, the positions of the pattern tiles in order,
+ * giving 9!/(9-k)! entries for k tiles. Values are packed two to a byte when they all fit in
+ * 4 bits and one to a byte otherwise. Saved tables are memory-mapped when loaded.
+ * @version 1.0
+ */
+public class PatternDatabase {
+    private static final int MAGIC = 0x38504442;
+    private static final int VERSION = 1;
+    private static final int CELLS = PackedBoard.CELLS;
+
+    //Cells next to each cell, -1 past the edge
+    private static final int[][] NEIGHBOURS = new int[CELLS][4];
+
+    static {
+        String[] directions = {"Up", "Down", "Left", "Right"};
+        for(int cell = 0; cell < CELLS; cell++) {
+            for(int d = 0; d < 4; d++) {
+                NEIGHBOURS[cell][d] = PackedBoard.target(cell, directions[d]);
+            }
+        }
+    }
+
+    private long goal;
+    private int[] tiles;
+    private int[] patternIndex = new int[16];
+    private int entries;
+    private int bitsPerEntry;
+    private ByteBuffer table;
+    private long buildNanos = 0;
+
+
+    /**
+     * Constructor for a table that has been built or loaded
+     * @param goal the packed Goal board
+     * @param tiles the pattern tiles
+     * @param bitsPerEntry 4 or 8
+     * @param table the packed values
+     */
+    private PatternDatabase(long goal, int[] tiles, int bitsPerEntry, ByteBuffer table) {
+        this.goal = goal;
+        this.tiles = tiles.clone();
+        this.entries = permutations(CELLS, tiles.length);
+        this.bitsPerEntry = bitsPerEntry;
+        this.table = table;
+
+        for(int i = 0; i < this.patternIndex.length; i++) {
+            this.patternIndex[i] = -1;
+        }
+        for(int i = 0; i < tiles.length; i++) {
+            this.patternIndex[tiles[i]] = i;
+        }
+    }
+
+
+    /**
+     * Builds the table for the pattern tiles with a 0-1 breadth first search
+     * from the goal. A search state is the positions of the pattern tiles and
+     * of the zero tile; moving the zero onto a pattern tile costs one move and
+     * onto any other tile costs nothing.
+     * @param goal the packed Goal board
+     * @param tiles the pattern tiles, without zero
+     * @return PatternDatabase the built table
+     */
+    public static PatternDatabase build(long goal, int[] tiles) {
+        long startTime = System.nanoTime();
+        int k = tiles.length;
+        int entries = permutations(CELLS, k);
+
+        //Cost for each placement and zero position, 0xFF is unvisited
+        byte[] cost = new byte[entries * CELLS];
+        byte[] best = new byte[entries];
+        Arrays.fill(cost, (byte) 0xFF);
+        Arrays.fill(best, (byte) 0xFF);
+
+        //Positions of the pattern tiles packed as nibbles, zero position in bits 60-63
+        long positions = 0;
+        int zero = PackedBoard.zeroIndex(goal);
+        for(int cell = 0; cell < CELLS; cell++) {
+            int tile = PackedBoard.tileAt(goal, cell);
+            for(int i = 0; i < k; i++) {
+                if(tiles[i] == tile) {
+                    positions |= ((long) cell) << (4 * i);
+                }
+            }
+        }
+
+        ArrayDeque<Long> deque = new ArrayDeque<>();
+        long first = positions | ((long) zero << 60);
+        cost[rank(positions, k) * CELLS + zero] = 0;
+        deque.add(first);
+
+        while(!deque.isEmpty()) {
+            long node = deque.poll();
+            long placement = node & 0x0FFFFFFFFFFFFFFFL;
+            int blank = (int) (node >>> 60);
+            int placementRank = rank(placement, k);
+            int nodeCost = cost[placementRank * CELLS + blank] & 0xFF;
+
+            if((best[placementRank] & 0xFF) > nodeCost) {
+                best[placementRank] = (byte) nodeCost;
+            }
+
+            for(int d = 0; d < 4; d++) {
+                int cell = NEIGHBOURS[blank][d];
+                if(cell < 0) {
+                    continue;
+                }
+
+                //Find if a pattern tile sits on the cell the zero moves to
+                long next = placement;
+                int moveCost = 0;
+                for(int i = 0; i < k; i++) {
+                    if(((placement >>> (4 * i)) & 0xF) == cell) {
+                        next = (placement & ~(0xFL << (4 * i))) | ((long) blank << (4 * i));
+                        moveCost = 1;
+                    }
+                }
+
+                int index = rank(next, k) * CELLS + cell;
+                int nextCost = nodeCost + moveCost;
+                if((cost[index] & 0xFF) <= nextCost) {
+                    continue;
+                }
+                cost[index] = (byte) nextCost;
+                long encoded = next | ((long) cell << 60);
+                if(moveCost == 0) {
+                    deque.addFirst(encoded);
+                } else {
+                    deque.addLast(encoded);
+                }
+            }
+        }
+
+        //Pack two values to a byte when they all fit in 4 bits
+        int max = 0;
+        for(byte b : best) {
+            max = Math.max(max, b & 0xFF);
+        }
+        int bits = max < 16 ? 4 : 8;
+        ByteBuffer table = ByteBuffer.allocate(bits == 4 ? (entries + 1) / 2 : entries);
+        for(int r = 0; r < entries; r++) {
+            int value = best[r] & 0xFF;
+            if(bits == 8) {
+                table.put(r, (byte) value);
+            } else {
+                int b = table.get(r >> 1);
+                b |= (r & 1) == 0 ? value : value << 4;
+                table.put(r >> 1, (byte) b);
+            }
+        }
+
+        PatternDatabase database = new PatternDatabase(goal, tiles, bits, table);
+        database.buildNanos = System.nanoTime() - startTime;
+        return database;
+    }
+
+
+    /**
+     * Returns the stored value for the board. Reads only primitives,
+     * so a lookup allocates nothing.
+     * @param board the packed board
+     * @return int the fewest moves of the pattern tiles to their goal positions
+     */
+    public int lookup(long board) {
+        long positions = 0;
+        for(int cell = 0; cell < CELLS; cell++) {
+            int i = this.patternIndex[(int) ((board >>> (4 * cell)) & 0xF)];
+            if(i >= 0) {
+                positions |= ((long) cell) << (4 * i);
+            }
+        }
+        int r = rank(positions, this.tiles.length);
+        if(this.bitsPerEntry == 8) {
+            return this.table.get(r) & 0xFF;
+        }
+        int b = this.table.get(r >> 1);
+        return (r & 1) == 0 ? b & 0xF : (b >> 4) & 0xF;
+    }
+
+
+    /**
+     * Ranks the positions of k tiles as a partial permutation of the cells:
+     * each position is counted among the cells not used by earlier tiles
+     * @param positions the cell of each tile packed as nibbles
+     * @param k the number of tiles
+     * @return int the rank between 0 and 9!/(9-k)! - 1
+     */
+    private static int rank(long positions, int k) {
+        int rank = 0;
+        int used = 0;
+        for(int i = 0; i < k; i++) {
+            int cell = (int) ((positions >>> (4 * i)) & 0xF);
+            int free = cell - Integer.bitCount(used & ((1 << cell) - 1));
+            rank = rank * (CELLS - i) + free;
+            used |= 1 << cell;
+        }
+        return rank;
+    }
+
+
+    /**
+     * Number of ordered placements of r items in n cells, n!/(n-r)!
+     * @param n the number of cells
+     * @param r the number of items
+     * @return int
+     */
+    private static int permutations(int n, int r) {
+        int result = 1;
+        for(int i = 0; i < r; i++) {
+            result *= n - i;
+        }
+        return result;
+    }
+
+
+    /**
+     * Saves the table to a file
+     * @param file the path to write
+     */
+    public void save(String file) throws IOException {
+        try(DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+            out.writeLong(this.goal);
+            out.writeByte(this.tiles.length);
+            for(int tile : this.tiles) {
+                out.writeByte(tile);
+            }
+            out.writeByte(this.bitsPerEntry);
+            out.writeInt(this.entries);
+            for(int i = 0; i < this.table.capacity(); i++) {
+                out.writeByte(this.table.get(i));
+            }
+        }
+    }
+
+
+    /**
+     * Loads a saved table, memory-mapping its values
+     * @param file the path to read
+     * @return PatternDatabase the loaded table
+     * @throws IOException if the file cannot be read or is not a pattern database
+     */
+    public static PatternDatabase load(String file) throws IOException {
+        try(FileChannel channel = FileChannel.open(Paths.get(file), StandardOpenOption.READ)) {
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(channel.size(), 64));
+            if(header.getInt() != MAGIC || header.get() != VERSION) {
+                throw new IOException("Not a pattern database: " + file);
+            }
+            long goal = header.getLong();
+            int[] tiles = new int[header.get()];
+            for(int i = 0; i < tiles.length; i++) {
+                tiles[i] = header.get();
+            }
+            int bits = header.get();
+            int entries = header.getInt();
+            int offset = header.position();
+            int size = bits == 4 ? (entries + 1) / 2 : entries;
+            if(entries != permutations(CELLS, tiles.length) || offset + size > channel.size()) {
+                throw new IOException("Pattern database is damaged: " + file);
+            }
+            return new PatternDatabase(goal, tiles, bits, channel.map(FileChannel.MapMode.READ_ONLY, offset, size));
+        }
+    }
+
+
+    /**
+     * Getter for the packed Goal board
+     * @return long
+     */
+    public long getGoal() {
+        return this.goal;
+    }
+
+    /**
+     * Getter for the pattern tiles
+     * @return int[]
+     */
+    public int[] getTiles() {
+        return this.tiles.clone();
+    }
+
+    /**
+     * Getter for the size of the stored values
+     * @return int the size in bytes
+     */
+    public int getTableBytes() {
+        return this.table.capacity();
+    }
+
+    /**
+     * Getter for the number of entries
+     * @return int
+     */
+    public int getEntries() {
+        return this.entries;
+    }
+
+    /**
+     * Getter for the bits used by each entry
+     * @return int 4 or 8
+     */
+    public int getBitsPerEntry() {
+        return this.bitsPerEntry;
+    }
+
+    /**
+     * Getter for the time taken to build the table
+     * @return long the time in nanoseconds, or 0 if loaded
+     */
+    public long getBuildNanos() {
+        return this.buildNanos;
+    }
+}
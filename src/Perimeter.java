@@ -0,0 +1,140 @@
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * This class represents the perimeter around a Goal State used by perimeter search: every
+ * board within a set number of moves of the goal, found with a breadth first search backwards
+ * from it. For each board it stores the exact distance to the goal and the first move of a
+ * shortest path there, so a forward search can stop as soon as it reaches the perimeter and
+ * finish the path from the table. The search stops early at the last full layer if the next
+ * layer would take the perimeter past its entry limit.
+ *
+ * Perimeters are cached by goal, depth and limit, so every solve towards the same goal reuses
+ * the same one.
+ * @version 1.0
+ */
+public class Perimeter {
+    private static final String[] DIRECTIONS = {"Up", "Down", "Left", "Right"};
+    private static final ConcurrentHashMap<String, Perimeter> CACHE = new ConcurrentHashMap<>();
+
+    private long goal;
+    private int depth = 0;
+
+    //Distance in the low byte, index of the next move in the byte above
+    private HashMap<Long, Integer> entries = new HashMap<>();
+    private long buildNanos;
+
+
+    /**
+     * Constructor that runs the breadth first search from the goal
+     * @param goal the packed Goal board
+     * @param maxDepth the number of moves from the goal to search
+     * @param maxEntries the most boards to store
+     */
+    private Perimeter(long goal, int maxDepth, int maxEntries) {
+        long startTime = System.nanoTime();
+        this.goal = goal;
+
+        ArrayList<Long> layer = new ArrayList<>();
+        this.entries.put(goal, 0);
+        layer.add(goal);
+
+        while(this.depth < maxDepth) {
+            HashMap<Long, Integer> next = new HashMap<>();
+            for(long board : layer) {
+                int zero = PackedBoard.zeroIndex(board);
+                for(int d = 0; d < DIRECTIONS.length; d++) {
+                    int target = PackedBoard.target(zero, DIRECTIONS[d]);
+                    if(target < 0) {
+                        continue;
+                    }
+                    long child = PackedBoard.move(board, zero, target);
+                    if(this.entries.containsKey(child) || next.containsKey(child)) {
+                        continue;
+                    }
+
+                    //Up and Down, Left and Right are paired, so d ^ 1 moves the zero back
+                    next.put(child, (this.depth + 1) | ((d ^ 1) << 8));
+                }
+            }
+
+            //Only full layers are kept, so every board outside is further than depth
+            if(next.isEmpty() || this.entries.size() + next.size() > maxEntries) {
+                break;
+            }
+            this.entries.putAll(next);
+            layer = new ArrayList<>(next.keySet());
+            this.depth++;
+        }
+        this.buildNanos = System.nanoTime() - startTime;
+    }
+
+
+    /**
+     * Returns the perimeter for the goal, building it on first use
+     * @param goal the packed Goal board
+     * @param maxDepth the number of moves from the goal to search
+     * @param maxEntries the most boards to store
+     * @return Perimeter the shared perimeter
+     */
+    public static Perimeter forGoal(long goal, int maxDepth, int maxEntries) {
+        String key = goal + ":" + maxDepth + ":" + maxEntries;
+        return CACHE.computeIfAbsent(key, k -> new Perimeter(goal, maxDepth, maxEntries));
+    }
+
+
+    /**
+     * Returns the exact number of moves from the board to the goal
+     * @param board the packed board
+     * @return int the distance, or -1 if the board is outside the perimeter
+     */
+    public int distance(long board) {
+        Integer entry = this.entries.get(board);
+        return entry == null ? -1 : entry & 0xFF;
+    }
+
+
+    /**
+     * Returns the direction to move the zero for the first move of a shortest
+     * path from the board to the goal
+     * @param board the packed board, inside the perimeter and not the goal
+     * @return String one of Up, Down, Left, or Right
+     */
+    public String nextMove(long board) {
+        return DIRECTIONS[(this.entries.get(board) >> 8) & 0xFF];
+    }
+
+
+    /**
+     * Getter for the number of moves the perimeter reaches from the goal
+     * @return int
+     */
+    public int getDepth() {
+        return this.depth;
+    }
+
+    /**
+     * Getter for the number of boards in the perimeter
+     * @return int
+     */
+    public int getSize() {
+        return this.entries.size();
+    }
+
+    /**
+     * Getter for the packed Goal board
+     * @return long
+     */
+    public long getGoal() {
+        return this.goal;
+    }
+
+    /**
+     * Getter for the time taken to build the perimeter
+     * @return long the time in nanoseconds
+     */
+    public long getBuildNanos() {
+        return this.buildNanos;
+    }
+}
@@ -2,12 +2,31 @@ import java.util.ArrayList;
 
 /**
  * This class represents the Frontier of the A* search. The generated States are stored
- * in ascending order to their f(n) value.
+ * in ascending order to their f(n) value. States with the same f(n) are kept in the order
+ * they were added, or optionally with the lowest h(n) first.
  * @author James Wooten
  * @version 1.0
  */
 public class PriorityQueue {
     private ArrayList<State> priorityQueue = new ArrayList<>();
+    private boolean lowHFirst = false;
+
+
+    /** 
+     * Constructor for a queue that keeps States with the same f(n) in the order they were added
+     */
+    public PriorityQueue() {
+    }
+
+
+    /** 
+     * Constructor for a queue that can put the lowest h(n) first among States with
+     * the same f(n), so the States nearest the goal in a layer are expanded first
+     * @param lowHFirst true to break f(n) ties on h(n)
+     */
+    public PriorityQueue(boolean lowHFirst) {
+        this.lowHFirst = lowHFirst;
+    }
 
 
     
@@ -19,17 +38,20 @@ public class PriorityQueue {
         if(this.priorityQueue.isEmpty()) {
             priorityQueue.add(s);
         } else {
-            //Iterate through each of the items in the Queue and compare f(n)
-            for(int i = 0; i < priorityQueue.size(); i++) {
-                if(s.getFScore() < priorityQueue.get(i).getFScore()) {
-                    priorityQueue.add(i, s);
-                    return;
+            //Binary search for the first item in the Queue with a greater f(n)
+            int low = 0;
+            int high = priorityQueue.size();
+            while(low < high) {
+                int mid = (low + high) >>> 1;
+                State other = priorityQueue.get(mid);
+                if(s.getFScore() < other.getFScore() || (this.lowHFirst && s.getFScore() == other.getFScore()
+                        && s.getHScore() < other.getHScore())) {
+                    high = mid;
+                } else {
+                    low = mid + 1;
                 }
             }
-            this.priorityQueue.add(s);
-            
-
-           
+            this.priorityQueue.add(low, s);
         }
     }
 
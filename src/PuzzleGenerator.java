@@ -0,0 +1,172 @@
+import java.util.ArrayList;
+import java.util.Random;
+
+/**
+ * This class generates solvable 8-Puzzle grids from a seed so that a set of puzzles
+ * can be reproduced exactly. Grids are made either as uniform random permutations,
+ * which are fixed to the parity of the goal, or as random walks away from the goal.
+ * Generated grids are sorted into buckets by their exact number of moves to the goal.
+ * @version 1.0
+ */
+public class PuzzleGenerator {
+    private static final String[] DIRECTIONS = {"Up", "Down", "Left", "Right"};
+
+    private Random random;
+    private int[] goal;
+    private GoalDistances goalDistances;
+
+
+    /**
+     * Constructor for a generator working towards the passed goal
+     * @param seed the seed for the random numbers
+     * @param goal the row-major tiles of the Goal grid
+     */
+    public PuzzleGenerator(long seed, int[] goal) {
+        this.random = new Random(seed);
+        this.goal = goal.clone();
+    }
+
+
+    /**
+     * Makes a uniform random permutation of the tiles. If it cannot reach
+     * the goal, the first two non-zero tiles are swapped to fix the parity.
+     * @return int[] the row-major tiles of a solvable grid
+     */
+    public int[] randomPermutation() {
+        int[] tiles = this.goal.clone();
+
+        //Fisher-Yates shuffle
+        for(int i = tiles.length - 1; i > 0; i--) {
+            int j = this.random.nextInt(i + 1);
+            int temp = tiles[i];
+            tiles[i] = tiles[j];
+            tiles[j] = temp;
+        }
+
+        if(!PackedBoard.isSolvable(tiles, this.goal)) {
+            int first = tiles[0] != 0 ? 0 : 1;
+            int second = tiles[first + 1] != 0 ? first + 1 : first + 2;
+            int temp = tiles[first];
+            tiles[first] = tiles[second];
+            tiles[second] = temp;
+        }
+        return tiles;
+    }
+
+
+    /**
+     * Makes a grid by moving the zero tile randomly away from the goal.
+     * A move is never undone by the next one.
+     * @param depth the number of moves in the walk
+     * @return int[] the row-major tiles of the grid
+     */
+    public int[] randomWalk(int depth) {
+        long board = PackedBoard.pack(this.goal);
+        int zero = PackedBoard.zeroIndex(board);
+        int previous = -1;
+        int[] targets = new int[4];
+
+        for(int step = 0; step < depth; step++) {
+            int count = 0;
+            for(String direction : DIRECTIONS) {
+                int target = PackedBoard.target(zero, direction);
+                if(target >= 0 && target != previous) {
+                    targets[count] = target;
+                    count++;
+                }
+            }
+            int target = targets[this.random.nextInt(count)];
+            board = PackedBoard.move(board, zero, target);
+            previous = zero;
+            zero = target;
+        }
+        return PackedBoard.unpack(board);
+    }
+
+
+    /**
+     * Builds buckets of grids by their exact number of moves to the goal, from 0
+     * up to maxLength. Candidates alternate between random permutations and random
+     * walks. Buckets that are still short after the attempts run out, such as the
+     * few grids 31 moves away, are filled from the grids at that distance.
+     * @param perBucket the number of grids wanted in each bucket
+     * @param maxLength the largest number of moves to bucket
+     * @param attempts the number of random candidates to try
+     * @return ArrayList<ArrayList<int[]>> the buckets, indexed by number of moves
+     */
+    public ArrayList<ArrayList<int[]>> generateBuckets(int perBucket, int maxLength, int attempts) {
+        GoalDistances distances = getGoalDistances();
+        maxLength = Math.min(maxLength, distances.maxDistance());
+
+        ArrayList<ArrayList<int[]>> buckets = new ArrayList<>();
+        ArrayList<ArrayList<Long>> seen = new ArrayList<>();
+        for(int i = 0; i <= maxLength; i++) {
+            buckets.add(new ArrayList<>());
+            seen.add(new ArrayList<>());
+        }
+
+        for(int attempt = 0; attempt < attempts; attempt++) {
+            int[] tiles;
+            if(attempt % 2 == 0) {
+                tiles = randomPermutation();
+            } else {
+                tiles = randomWalk(this.random.nextInt(2 * maxLength + 1));
+            }
+            addToBucket(buckets, seen, PackedBoard.pack(tiles), perBucket, maxLength);
+        }
+
+        //Top up short buckets from the exact layer
+        for(int length = 0; length <= maxLength; length++) {
+            ArrayList<Long> layer = new ArrayList<>(distances.layer(length));
+            while(buckets.get(length).size() < perBucket && !layer.isEmpty()) {
+                long board = layer.remove(this.random.nextInt(layer.size()));
+                addToBucket(buckets, seen, board, perBucket, maxLength);
+            }
+        }
+        return buckets;
+    }
+
+
+    /**
+     * Adds the board to its bucket if the bucket is not full and the board
+     * has not been added before
+     * @param buckets the buckets of grids
+     * @param seen the packed boards already in each bucket
+     * @param board the packed board
+     * @param perBucket the size of a full bucket
+     * @param maxLength the largest bucket
+     */
+    private void addToBucket(ArrayList<ArrayList<int[]>> buckets, ArrayList<ArrayList<Long>> seen,
+            long board, int perBucket, int maxLength) {
+        int length = getGoalDistances().distance(board);
+        if(length < 0 || length > maxLength) {
+            return;
+        }
+        if(buckets.get(length).size() >= perBucket || seen.get(length).contains(board)) {
+            return;
+        }
+        buckets.get(length).add(PackedBoard.unpack(board));
+        seen.get(length).add(board);
+    }
+
+
+    /**
+     * Getter for the exact distances to the goal, found on first use
+     * @return GoalDistances
+     */
+    public GoalDistances getGoalDistances() {
+        if(this.goalDistances == null) {
+            this.goalDistances = new GoalDistances(PackedBoard.pack(this.goal));
+        }
+        return this.goalDistances;
+    }
+
+
+    /**
+     * Getter for the goal tiles
+     * @return int[]
+     */
+    public int[] getGoal() {
+        return this.goal.clone();
+    }
+}
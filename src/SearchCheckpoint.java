@@ -0,0 +1,439 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * This class saves the state of an A* search to a binary file every set number of
+ * expansions, so a long search can be resumed after the program stops. The search
+ * thread only copies the frontier and visited States into primitive arrays, as they
+ * are; the file is written by a background thread, to a temporary file that then
+ * replaces the last checkpoint. The visited States include the frontier, and the
+ * repeated entries are dropped when the checkpoint is loaded. The counters of the
+ * search, including the expansions in each f(n) layer, are saved with it, so a resumed
+ * search reports the same totals as one that was never stopped.
+ *
+ * Every State is stored in 8 bytes: its grid packed into 5 bytes, its g(n) value in 2 bytes,
+ * and 1 byte for the move that made it from its parent, from which the parent's grid is found.
+ * @version 1.0
+ */
+public class SearchCheckpoint {
+    private static final int MAGIC = 0x3850434B;
+    private static final int VERSION = 2;
+
+    //Moves stored as the change in the zero index from the parent
+    private static final int[] MOVE_DELTAS = {0, -3, 3, -1, 1};
+
+    private String file;
+    private int interval;
+    private ExecutorService writer;
+    private Future<?> pendingWrite;
+    private long lastSize = 0;
+    private long lastWriteNanos = 0;
+    private long lastSnapshotNanos = 0;
+
+    //Values read by load()
+    private String heuristic;
+    private State start;
+    private State goal;
+    private State current;
+    private int numNodesExpanded;
+    private int numNodesGenerated;
+    private int frontierPeak;
+    private int numDuplicatesRejected;
+    private int maxFExpanded;
+    private int[] fLayerExpansions = new int[0];
+    private ArrayList<State> frontier = new ArrayList<>();
+    private ArrayList<State> visited = new ArrayList<>();
+
+
+    /**
+     * Constructor for a checkpoint file written every interval expansions
+     * @param file the path of the checkpoint file
+     * @param interval the number of expansions between checkpoints
+     */
+    public SearchCheckpoint(String file, int interval) {
+        this.file = file;
+        this.interval = interval;
+    }
+
+
+    /**
+     * Checks if a checkpoint should be taken after this many expansions
+     * @param numNodesExpanded the number of nodes expanded so far
+     * @return boolean returns true if a checkpoint is due
+     */
+    public boolean isDue(int numNodesExpanded) {
+        return this.interval > 0 && numNodesExpanded % this.interval == 0;
+    }
+
+
+    /**
+     * Copies the search into arrays and hands them to the background writer.
+     * If the previous checkpoint is still being written, this one is skipped.
+     * @param heuristic the Heuristic being used
+     * @param start the Start State
+     * @param goal the Goal State
+     * @param current the State about to be expanded
+     * @param numNodesExpanded the number of nodes expanded
+     * @param numNodesGenerated the number of nodes generated
+     * @param frontierPeak the largest frontier size so far
+     * @param numDuplicatesRejected the number of duplicate States rejected
+     * @param maxFExpanded the largest f(n) expanded so far
+     * @param fLayerExpansions the number of expansions in each f(n) layer
+     * @param stateVisited every State generated so far
+     * @param priorityQueue the frontier
+     */
+    public void save(String heuristic, State start, State goal, State current, int numNodesExpanded,
+            int numNodesGenerated, int frontierPeak, int numDuplicatesRejected, int maxFExpanded,
+            int[] fLayerExpansions, StateVisitedHashSet stateVisited, PriorityQueue priorityQueue) {
+        if(this.pendingWrite != null && !this.pendingWrite.isDone()) {
+            return;
+        }
+
+        long startTime = System.nanoTime();
+        ArrayList<State> queue = priorityQueue.getPriorityQueue();
+        int[] counts = {numNodesExpanded, numNodesGenerated, frontierPeak, numDuplicatesRejected, maxFExpanded};
+        int[] fLayers = Arrays.copyOf(fLayerExpansions, maxFExpanded + 1);
+        long[] header = {start.pack(), goal.pack(), encode(current)};
+
+        //Frontier in queue order, so ties are kept in the same order on resume
+        long[] frontierEntries = new long[queue.size()];
+        for(int i = 0; i < queue.size(); i++) {
+            frontierEntries[i] = encode(queue.get(i));
+        }
+
+        //Every visited State, including the frontier and current
+        long[] visitedEntries = new long[stateVisited.size()];
+        int visitedCount = 0;
+        for(State s : stateVisited) {
+            visitedEntries[visitedCount] = encode(s);
+            visitedCount++;
+        }
+        int visitedSize = visitedCount;
+        this.lastSnapshotNanos = System.nanoTime() - startTime;
+        long snapshotNanos = this.lastSnapshotNanos;
+
+        if(this.writer == null) {
+            this.writer = Executors.newSingleThreadExecutor(r -> {
+                Thread t = new Thread(r, "checkpoint-writer");
+                t.setDaemon(true);
+                return t;
+            });
+        }
+        this.pendingWrite = this.writer.submit(() -> write(heuristic, counts, fLayers, header, frontierEntries,
+                visitedEntries, visitedSize, snapshotNanos));
+    }
+
+
+    /**
+     * Waits for the last checkpoint to finish writing
+     */
+    public void finish() {
+        if(this.pendingWrite == null) {
+            return;
+        }
+        try {
+            this.pendingWrite.get();
+        } catch(Exception e) {
+            System.out.println("Checkpoint write failed: " + e.getMessage());
+        }
+    }
+
+
+    /**
+     * Writes a checkpoint to a temporary file and moves it over the last one.
+     * Runs on the background writer thread.
+     */
+    private void write(String heuristic, int[] counts, int[] fLayers, long[] header, long[] frontierEntries,
+            long[] visitedEntries, int visitedCount, long snapshotNanos) {
+        long startTime = System.nanoTime();
+        Path target = Paths.get(this.file);
+        Path temp = Paths.get(this.file + ".tmp");
+
+        try(DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp.toFile())))) {
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+            out.writeUTF(heuristic);
+            out.writeLong(header[0]);
+            out.writeLong(header[1]);
+            out.writeLong(header[2]);
+            for(int count : counts) {
+                out.writeInt(count);
+            }
+            out.writeInt(fLayers.length);
+            for(int expansions : fLayers) {
+                out.writeInt(expansions);
+            }
+            out.writeInt(frontierEntries.length);
+            for(long entry : frontierEntries) {
+                out.writeLong(entry);
+            }
+            out.writeInt(visitedCount);
+            for(int i = 0; i < visitedCount; i++) {
+                out.writeLong(visitedEntries[i]);
+            }
+        } catch(IOException e) {
+            System.out.println("Checkpoint write failed: " + e.getMessage());
+            return;
+        }
+
+        try {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch(IOException e) {
+            System.out.println("Checkpoint write failed: " + e.getMessage());
+            return;
+        }
+
+        this.lastSize = target.toFile().length();
+        this.lastWriteNanos = System.nanoTime() - startTime;
+        System.out.println("Checkpoint written: " + this.lastSize + " bytes in "
+                + this.lastWriteNanos / 1000000 + " ms after a " + snapshotNanos / 1000000
+                + " ms snapshot (" + counts[0] + " nodes expanded)");
+    }
+
+
+    /**
+     * Reads the checkpoint file and rebuilds its States with their parents.
+     * The h(n) and f(n) values are not stored and must be recalculated.
+     * @throws IOException if the file is missing or not a checkpoint
+     */
+    public void load() throws IOException {
+        try(DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(this.file)))) {
+            if(in.readInt() != MAGIC || in.readByte() != VERSION) {
+                throw new IOException("Not a checkpoint file: " + this.file);
+            }
+            this.heuristic = in.readUTF();
+            this.start = new State(PackedBoard.unpack(in.readLong()));
+            this.goal = new State(PackedBoard.unpack(in.readLong()));
+            long currentEntry = in.readLong();
+            this.numNodesExpanded = in.readInt();
+            this.numNodesGenerated = in.readInt();
+            this.frontierPeak = in.readInt();
+            this.numDuplicatesRejected = in.readInt();
+            this.maxFExpanded = in.readInt();
+            this.fLayerExpansions = new int[in.readInt()];
+            for(int i = 0; i < this.fLayerExpansions.length; i++) {
+                this.fLayerExpansions[i] = in.readInt();
+            }
+
+            HashMap<Long, State> states = new HashMap<>();
+            HashMap<State, Long> entries = new HashMap<>();
+
+            this.current = decode(currentEntry, states, entries);
+            this.visited = new ArrayList<>();
+            this.visited.add(this.current);
+
+            this.frontier = new ArrayList<>();
+            int frontierCount = in.readInt();
+            for(int i = 0; i < frontierCount; i++) {
+                State s = decode(in.readLong(), states, entries);
+                this.frontier.add(s);
+                this.visited.add(s);
+            }
+
+            //The visited entries repeat the frontier and current, keep the first of each grid
+            int visitedCount = in.readInt();
+            for(int i = 0; i < visitedCount; i++) {
+                long entry = in.readLong();
+                if(!states.containsKey(entry & 0xFFFFFFFFFFL)) {
+                    this.visited.add(decode(entry, states, entries));
+                }
+            }
+
+            //Link each State to its parent now that every State exists
+            for(State s : this.visited) {
+                long entry = entries.get(s);
+                int move = (int) ((entry >>> 56) & 0xFF);
+                if(move == 0) {
+                    s.setParent(null);
+                    continue;
+                }
+                long board = entry & 0xFFFFFFFFFFL;
+                int zero = PackedBoard.zeroIndex(board);
+                s.setParent(states.get(PackedBoard.move(board, zero, zero - MOVE_DELTAS[move])));
+            }
+        }
+    }
+
+
+    /**
+     * Packs a State into a checkpoint entry: the grid in bits 0-39,
+     * g(n) in bits 40-55, and the move from the parent in bits 56-63
+     * @param s the State to encode
+     * @return long the entry
+     */
+    private static long encode(State s) {
+        int move = 0;
+        if(s.getParent() != null) {
+            int delta = zeroIndex(s) - zeroIndex(s.getParent());
+            for(int i = 1; i < MOVE_DELTAS.length; i++) {
+                if(MOVE_DELTAS[i] == delta) {
+                    move = i;
+                }
+            }
+        }
+        return s.pack() | ((long) (s.getGScore() & 0xFFFF) << 40) | ((long) move << 56);
+    }
+
+
+    /**
+     * Row-major index of the zero tile, from the location the State keeps
+     * @param s the State
+     * @return int
+     */
+    private static int zeroIndex(State s) {
+        return s.getZeroGridLocation()[0] * PackedBoard.SIZE + s.getZeroGridLocation()[1];
+    }
+
+
+    /**
+     * Rebuilds the State for a checkpoint entry
+     * @param entry the entry to decode
+     * @param states the States rebuilt so far, by packed grid
+     * @param entries the entry of each State rebuilt so far
+     * @return State the rebuilt State, without its parent
+     */
+    private static State decode(long entry, HashMap<Long, State> states, HashMap<State, Long> entries) {
+        long board = entry & 0xFFFFFFFFFFL;
+        State s = new State(PackedBoard.unpack(board));
+        s.setGScore((int) ((entry >>> 40) & 0xFFFF));
+        states.put(board, s);
+        entries.put(s, entry);
+        return s;
+    }
+
+
+    /**
+     * Getter for the size of the last checkpoint written
+     * @return long the size in bytes
+     */
+    public long getLastSize() {
+        return this.lastSize;
+    }
+
+    /**
+     * Getter for the time taken to write the last checkpoint
+     * @return long the time in nanoseconds
+     */
+    public long getLastWriteNanos() {
+        return this.lastWriteNanos;
+    }
+
+    /**
+     * Getter for the time the search thread spent copying the last checkpoint
+     * @return long the time in nanoseconds
+     */
+    public long getLastSnapshotNanos() {
+        return this.lastSnapshotNanos;
+    }
+
+    /**
+     * Getter for the Heuristic of the loaded checkpoint
+     * @return String
+     */
+    public String getHeuristic() {
+        return this.heuristic;
+    }
+
+    /**
+     * Getter for the Start State of the loaded checkpoint
+     * @return State
+     */
+    public State getStart() {
+        return this.start;
+    }
+
+    /**
+     * Getter for the Goal State of the loaded checkpoint
+     * @return State
+     */
+    public State getGoal() {
+        return this.goal;
+    }
+
+    /**
+     * Getter for the State that was about to be expanded
+     * @return State
+     */
+    public State getCurrent() {
+        return this.current;
+    }
+
+    /**
+     * Getter for the frontier of the loaded checkpoint, in queue order
+     * @return ArrayList<State>
+     */
+    public ArrayList<State> getFrontier() {
+        return this.frontier;
+    }
+
+    /**
+     * Getter for every State visited in the loaded checkpoint
+     * @return ArrayList<State>
+     */
+    public ArrayList<State> getVisited() {
+        return this.visited;
+    }
+
+    /**
+     * Getter for the number of nodes expanded in the loaded checkpoint
+     * @return int
+     */
+    public int getNumNodesExpanded() {
+        return this.numNodesExpanded;
+    }
+
+    /**
+     * Getter for the number of nodes generated in the loaded checkpoint
+     * @return int
+     */
+    public int getNumNodesGenerated() {
+        return this.numNodesGenerated;
+    }
+
+    /**
+     * Getter for the largest frontier size in the loaded checkpoint
+     * @return int
+     */
+    public int getFrontierPeak() {
+        return this.frontierPeak;
+    }
+
+    /**
+     * Getter for the number of duplicate States rejected in the loaded checkpoint
+     * @return int
+     */
+    public int getNumDuplicatesRejected() {
+        return this.numDuplicatesRejected;
+    }
+
+    /**
+     * Getter for the largest f(n) expanded in the loaded checkpoint
+     * @return int
+     */
+    public int getMaxFExpanded() {
+        return this.maxFExpanded;
+    }
+
+    /**
+     * Getter for the number of expansions in each f(n) layer of the loaded checkpoint
+     * @return int[] indexed by f(n)
+     */
+    public int[] getFLayerExpansions() {
+        return this.fLayerExpansions;
+    }
+}
@@ -0,0 +1,337 @@
+import java.util.Locale;
+
+/**
+ * This class represents the report for a solve, used to compare Heuristics and tie-breaks.
+ * Besides the counts kept by the game it holds the effective branching factor, the error of
+ * the Heuristic along the solution path, the number of expansions in each f(n) layer, and how
+ * often a generated State was rejected as already visited. Reports for many solves can be
+ * merged into one, which then holds totals and averages per solve.
+ * @version 1.0
+ */
+public class SearchStatistics {
+    public static final String CSV_HEADER = "heuristic,mode,solves,solved,moves,expanded,reExpansions,generated,duplicates,"
+            + "duplicateRate,frontierPeak,branchingFactor,meanHError,maxHError,meanHRatio,fLayers,"
+            + "timeNanos,allocatedBytes";
+
+    private String heuristic;
+    private String mode;
+    private int solves = 0;
+    private int solved = 0;
+    private long moves = 0;
+    private long expanded = 0;
+    private long reExpansions = 0;
+    private long generated = 0;
+    private long duplicates = 0;
+    private int frontierPeak = 0;
+    private double branchingFactorSum = 0;
+    private double hErrorSum = 0;
+    private int maxHError = 0;
+    private double hRatioSum = 0;
+    private long pathNodes = 0;
+    private long[] fLayerExpansions = new long[0];
+    private long timeNanos = 0;
+    private long allocatedBytes = 0;
+
+
+    /**
+     * Constructor for an empty report, ready to merge solves into
+     * @param heuristic the Heuristic the solves used
+     * @param mode the search the solves used
+     */
+    public SearchStatistics(String heuristic, String mode) {
+        this.heuristic = heuristic;
+        this.mode = mode;
+    }
+
+
+    /**
+     * Constructor for the report of a single solve
+     * @param heuristic the Heuristic used
+     * @param mode the search used
+     * @param solution the Goal State with its parents, or null if not solved
+     * @param expanded the number of nodes expanded
+     * @param reExpansions the number of expansions of States expanded before
+     * @param generated the number of nodes generated
+     * @param duplicates the number of generated States rejected as visited
+     * @param frontierPeak the largest frontier size
+     * @param fLayerExpansions the number of expansions for each f(n) value
+     * @param timeNanos the time taken
+     * @param allocatedBytes the bytes allocated
+     */
+    public SearchStatistics(String heuristic, String mode, State solution, long expanded, long reExpansions, long generated,
+            long duplicates, int frontierPeak, int[] fLayerExpansions, long timeNanos, long allocatedBytes) {
+        this.heuristic = heuristic;
+        this.mode = mode;
+        this.solves = 1;
+        this.expanded = expanded;
+        this.reExpansions = reExpansions;
+        this.generated = generated;
+        this.duplicates = duplicates;
+        this.frontierPeak = frontierPeak;
+        this.timeNanos = timeNanos;
+        this.allocatedBytes = allocatedBytes;
+
+        this.fLayerExpansions = new long[fLayerExpansions.length];
+        for(int f = 0; f < fLayerExpansions.length; f++) {
+            this.fLayerExpansions[f] = fLayerExpansions[f];
+        }
+
+        if(solution == null) {
+            return;
+        }
+        this.solved = 1;
+        this.moves = solution.getGScore();
+        this.branchingFactorSum = effectiveBranchingFactor(generated, solution.getGScore());
+
+        //Compare h(n) to the true distance of each State on the solution path
+        for(State s = solution; s != null; s = s.getParent()) {
+            int distance = solution.getGScore() - s.getGScore();
+            if(distance == 0) {
+                continue;
+            }
+            int error = distance - s.getHScore();
+            this.hErrorSum += error;
+            this.maxHError = Math.max(this.maxHError, error);
+            this.hRatioSum += (double) s.getHScore() / distance;
+            this.pathNodes++;
+        }
+    }
+
+
+    /**
+     * Finds the effective branching factor b, the branching factor a uniform
+     * tree of the solution depth would need to hold the generated nodes:
+     * generated = b + b^2 + ... + b^depth
+     * @param generated the number of nodes generated
+     * @param depth the depth of the solution
+     * @return double the effective branching factor, or 0 if the depth is 0
+     */
+    public static double effectiveBranchingFactor(long generated, int depth) {
+        if(depth == 0 || generated == 0) {
+            return 0;
+        }
+        double low = 0;
+        double high = Math.max(1, generated);
+
+        //Bisect, the tree size grows with b
+        for(int i = 0; i < 100; i++) {
+            double mid = (low + high) / 2;
+            double total = 0;
+            double power = 1;
+            for(int d = 0; d < depth && total <= generated; d++) {
+                power *= mid;
+                total += power;
+            }
+            if(total < generated) {
+                low = mid;
+            } else {
+                high = mid;
+            }
+        }
+        return (low + high) / 2;
+    }
+
+
+    /**
+     * Adds another report into this one
+     * @param other the report to add
+     */
+    public void merge(SearchStatistics other) {
+        this.solves += other.solves;
+        this.solved += other.solved;
+        this.moves += other.moves;
+        this.expanded += other.expanded;
+        this.reExpansions += other.reExpansions;
+        this.generated += other.generated;
+        this.duplicates += other.duplicates;
+        this.frontierPeak = Math.max(this.frontierPeak, other.frontierPeak);
+        this.branchingFactorSum += other.branchingFactorSum;
+        this.hErrorSum += other.hErrorSum;
+        this.maxHError = Math.max(this.maxHError, other.maxHError);
+        this.hRatioSum += other.hRatioSum;
+        this.pathNodes += other.pathNodes;
+        this.timeNanos += other.timeNanos;
+        this.allocatedBytes += other.allocatedBytes;
+
+        if(other.fLayerExpansions.length > this.fLayerExpansions.length) {
+            long[] grown = new long[other.fLayerExpansions.length];
+            System.arraycopy(this.fLayerExpansions, 0, grown, 0, this.fLayerExpansions.length);
+            this.fLayerExpansions = grown;
+        }
+        for(int f = 0; f < other.fLayerExpansions.length; f++) {
+            this.fLayerExpansions[f] += other.fLayerExpansions[f];
+        }
+    }
+
+
+    /**
+     * Share of generated children that were rejected as already visited
+     * @return double the duplicate rate between 0 and 1
+     */
+    public double getDuplicateRate() {
+        long children = this.generated + this.duplicates;
+        return children == 0 ? 0 : (double) this.duplicates / children;
+    }
+
+
+    /**
+     * Average effective branching factor over the solved puzzles
+     * @return double
+     */
+    public double getBranchingFactor() {
+        return this.solved == 0 ? 0 : this.branchingFactorSum / this.solved;
+    }
+
+
+    /**
+     * Average of true distance minus h(n) over the States on the solution paths
+     * @return double
+     */
+    public double getMeanHError() {
+        return this.pathNodes == 0 ? 0 : this.hErrorSum / this.pathNodes;
+    }
+
+
+    /**
+     * Average of h(n) divided by true distance over the States on the solution paths
+     * @return double
+     */
+    public double getMeanHRatio() {
+        return this.pathNodes == 0 ? 0 : this.hRatioSum / this.pathNodes;
+    }
+
+
+    /**
+     * Expansions per f(n) layer as f:count pairs separated by spaces
+     * @return String
+     */
+    public String getFLayerProfile() {
+        StringBuilder profile = new StringBuilder();
+        for(int f = 0; f < this.fLayerExpansions.length; f++) {
+            if(this.fLayerExpansions[f] == 0) {
+                continue;
+            }
+            if(profile.length() > 0) {
+                profile.append(' ');
+            }
+            profile.append(f).append(':').append(this.fLayerExpansions[f]);
+        }
+        return profile.toString();
+    }
+
+
+    /**
+     * Returns the report as a CSV row matching CSV_HEADER
+     * @return String
+     */
+    public String toCsvRow() {
+        return String.join(",",
+                this.heuristic,
+                this.mode,
+                String.valueOf(this.solves),
+                String.valueOf(this.solved),
+                String.valueOf(this.moves),
+                String.valueOf(this.expanded),
+                String.valueOf(this.reExpansions),
+                String.valueOf(this.generated),
+                String.valueOf(this.duplicates),
+                String.format(Locale.ROOT, "%.4f", getDuplicateRate()),
+                String.valueOf(this.frontierPeak),
+                String.format(Locale.ROOT, "%.4f", getBranchingFactor()),
+                String.format(Locale.ROOT, "%.4f", getMeanHError()),
+                String.valueOf(this.maxHError),
+                String.format(Locale.ROOT, "%.4f", getMeanHRatio()),
+                getFLayerProfile(),
+                String.valueOf(this.timeNanos),
+                String.valueOf(this.allocatedBytes));
+    }
+
+
+    /**
+     * Returns the report as readable lines
+     * @return String
+     */
+    @Override
+    public String toString() {
+        return "Effective Branching Factor: " + String.format(Locale.ROOT, "%.3f", getBranchingFactor()) + "\n"
+                + "Heuristic Error (mean / max): " + String.format(Locale.ROOT, "%.3f", getMeanHError()) + " / " + this.maxHError + "\n"
+                + "Heuristic Accuracy (mean h / true): " + String.format(Locale.ROOT, "%.3f", getMeanHRatio()) + "\n"
+                + "Duplicates Rejected: " + this.duplicates + " (" + String.format(Locale.ROOT, "%.1f", 100 * getDuplicateRate()) + "%)\n"
+                + "Frontier Peak: " + this.frontierPeak + "\n"
+                + "Re-Expansions: " + this.reExpansions + "\n"
+                + "Expansions per f(n) Layer: " + getFLayerProfile();
+    }
+
+
+    /**
+     * Getter for the Heuristic
+     * @return String
+     */
+    public String getHeuristic() {
+        return this.heuristic;
+    }
+
+    /**
+     * Getter for the search mode
+     * @return String
+     */
+    public String getMode() {
+        return this.mode;
+    }
+
+    /**
+     * Getter for the total number of moves in the solutions
+     * @return long
+     */
+    public long getMoves() {
+        return this.moves;
+    }
+
+    /**
+     * Getter for the number of nodes expanded
+     * @return long
+     */
+    public long getExpanded() {
+        return this.expanded;
+    }
+
+    /**
+     * Getter for the number of expansions of States expanded before
+     * @return long
+     */
+    public long getReExpansions() {
+        return this.reExpansions;
+    }
+
+    /**
+     * Getter for the number of nodes generated
+     * @return long
+     */
+    public long getGenerated() {
+        return this.generated;
+    }
+
+    /**
+     * Getter for the largest frontier size
+     * @return int
+     */
+    public int getFrontierPeak() {
+        return this.frontierPeak;
+    }
+
+    /**
+     * Getter for the time taken
+     * @return long the time in nanoseconds
+     */
+    public long getTimeNanos() {
+        return this.timeNanos;
+    }
+
+    /**
+     * Getter for the bytes allocated
+     * @return long
+     */
+    public long getAllocatedBytes() {
+        return this.allocatedBytes;
+    }
+}
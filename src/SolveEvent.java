@@ -0,0 +1,35 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * This class represents the Flight Recorder event for one solve of the 8-Puzzle.
+ * It begins when the search starts and is committed when the search ends, so the
+ * recording shows the duration of each solve along with its result.
+ * @version 1.0
+ */
+@Name("puzzle.Solve")
+@Label("Puzzle Solve")
+@Category("8-Puzzle")
+@Description("A search from the Start State to the Goal State")
+public class SolveEvent extends Event {
+    @Label("Heuristic")
+    public String heuristic;
+
+    @Label("Solved")
+    public boolean solved;
+
+    @Label("Moves")
+    public int moves;
+
+    @Label("Nodes Expanded")
+    public int nodesExpanded;
+
+    @Label("Nodes Generated")
+    public int nodesGenerated;
+
+    @Label("Frontier Peak")
+    public int frontierPeak;
+}
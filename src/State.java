@@ -53,6 +53,23 @@ public class State {
         this.gScore = parent.getGScore() + 1;
     }
 
+    /**
+     * Constructor that builds a root State from a one dimensional,
+     * row-major array of tiles instead of asking the user
+     * @param tiles the tiles of the grid
+     */
+    public State(int[] tiles) {
+        this.currentGrid = new int[3][3];
+        this.zeroGridLocation = new int[2];
+
+        //Parent is null - root object
+        this.parent = null;
+
+        convertGrid(tiles);
+        findZero();
+        this.gScore = 0;
+    }
+
     /**
      * Asks for the grid from the user and checks for validity before
      * converting into a two dimensional array
@@ -211,6 +228,42 @@ public class State {
     }
 
     
+    /** 
+     * Packs the current grid into a long, see PackedBoard
+     * @return long the packed grid
+     */
+    public long pack() {
+        return PackedBoard.pack(this.currentGrid);
+    }
+
+    
+    /** 
+     * Two States are equal when their grids hold the same layout
+     * @param o the object to compare
+     * @return boolean returns true if the grids match
+     */
+    @Override
+    public boolean equals(Object o) {
+        if(this == o) {
+            return true;
+        }
+        if(!(o instanceof State)) {
+            return false;
+        }
+        return this.pack() == ((State) o).pack();
+    }
+
+    
+    /** 
+     * Hash code of the current grid layout
+     * @return int
+     */
+    @Override
+    public int hashCode() {
+        return Long.hashCode(this.pack() * 0x9E3779B97F4A7C15L);
+    }
+
+    
     /** 
      * Shifts the zero location of the current grid in the direction
      * of the input String and swaps values, then sets current grid to 
@@ -1,5 +1,4 @@
 import java.util.HashSet;
-import java.util.Iterator;
 
 /**
  * This class represents the stored set of previously visited states
@@ -7,32 +6,44 @@ import java.util.Iterator;
  * @version 1.0
  */
 public class StateVisitedHashSet extends HashSet<State> {
+    private static final float LOAD_FACTOR = 0.75f;
+
+    //Mirrors the table size of the backing HashMap, which starts at 16 and doubles
+    private int capacity = 16;
    
     
     
     /** 
-     * Checks if the hash set contains the input state's current grid 
-     * and compares to see if there are any differences
+     * Checks if the hash set contains a state with the same grid as the
+     * input state. States hash and compare on their packed grid, so this
+     * is a single hash lookup rather than a scan of the set.
      * @param current
      * @return boolean
      */
     public boolean contains(State current) {
-        Iterator<State> it = this.iterator();
+        return super.contains(current);
+    }
 
-        while(it.hasNext()) {
-            int[][] temp = it.next().getCurrentGrid();
-            int numSameSquare = 0;
-            for(int i = 0; i < 3; i++) {
-                for(int j = 0; j < 3; j++) {
-                    if(temp[i][j] == current.getCurrentGrid()[i][j]) {
-                        numSameSquare++;
-                    }
-                }
-            }
-            if(numSameSquare == 9) {
-                return true;
+    
+    /** 
+     * Adds the state and records a ClosedSetResizeEvent when the set
+     * grows past its load factor and the table is rehashed
+     * @param s the state to add
+     * @return boolean returns true if the state was not already in the set
+     */
+    @Override
+    public boolean add(State s) {
+        boolean added = super.add(s);
+        if(added && this.size() > this.capacity * LOAD_FACTOR) {
+            ClosedSetResizeEvent event = new ClosedSetResizeEvent();
+            if(event.shouldCommit()) {
+                event.oldCapacity = this.capacity;
+                event.newCapacity = this.capacity * 2;
+                event.size = this.size();
+                event.commit();
             }
+            this.capacity *= 2;
         }
-        return false;
+        return added;
     }
 }
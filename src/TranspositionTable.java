@@ -0,0 +1,268 @@
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * This class represents a fixed size transposition table for depth first searches such as
+ * IDA*. For each board it keeps the smallest g(n) the board was reached with, the iteration
+ * that happened in, and the best known lower bound on its distance to the goal.
+ *
+ * Entries are single longs in an AtomicLongArray, so threads can share the table without locks.
+ * A board is stored as its rank among the 9! permutations plus one, so a hit is never a different
+ * board; an empty slot is 0. Each bucket holds two slots: the first keeps the entry nearest
+ * the root, which cuts off the largest subtree, and the second always takes the newest entry.
+ * A write that loses a race is dropped, which only costs a later hit.
+ *
+ * Tables are shared by size across solves and threads, so one is allocated once and not cleared
+ * for every solve. Each search reserves its own range of iteration numbers and only accepts
+ * entries from that range, so entries from earlier searches, or from searches for another goal
+ * running at the same time, are treated as empty. A search that runs out of iteration numbers
+ * goes on without the table.
+ *
+ * Entry layout: board rank in bits 0-18, g(n) in bits 19-25, bound in bits 26-32, iteration in bits 33-63.
+ * @version 1.0
+ */
+public class TranspositionTable {
+    public static final int ITERATIONS_PER_SEARCH = 64;
+    private static final long KEY_MASK = (1L << 19) - 1;
+    private static final int MAX_VALUE = 0x7F;
+    private static final int[] FACTORIALS = {40320, 5040, 720, 120, 24, 6, 2, 1, 1};
+    private static final ConcurrentHashMap<Integer, TranspositionTable> SHARED = new ConcurrentHashMap<>();
+
+    private AtomicLongArray entries;
+    private int bucketMask;
+    private AtomicInteger nextIteration = new AtomicInteger(1);
+    private LongAdder probes = new LongAdder();
+    private LongAdder hits = new LongAdder();
+    private LongAdder stores = new LongAdder();
+    private LongAdder replacements = new LongAdder();
+
+
+    /**
+     * Constructor for a table with room for at least the number of entries,
+     * rounded up to a power of two
+     * @param size the number of entries
+     */
+    public TranspositionTable(int size) {
+        int buckets = Integer.highestOneBit(Math.max(2, size) - 1);
+        this.entries = new AtomicLongArray(2 * buckets);
+        this.bucketMask = buckets - 1;
+    }
+
+
+    /**
+     * Returns the table of the size shared by every solve, allocating it on first use
+     * @param size the number of entries
+     * @return TranspositionTable the shared table
+     */
+    public static TranspositionTable shared(int size) {
+        return SHARED.computeIfAbsent(size, TranspositionTable::new);
+    }
+
+
+    /**
+     * Reserves the iteration numbers for a new search. The range does not overlap that of
+     * any other search, so the search only ever sees its own entries.
+     * @return int the first iteration number of the search, or 0 if none are left
+     */
+    public int beginSearch() {
+        int first = this.nextIteration.getAndUpdate(i -> i > Integer.MAX_VALUE - ITERATIONS_PER_SEARCH ? i : i + ITERATIONS_PER_SEARCH);
+        return first > Integer.MAX_VALUE - ITERATIONS_PER_SEARCH ? 0 : first;
+    }
+
+
+    /**
+     * Finds the entry for a board stored by the calling search
+     * @param board the packed board
+     * @param firstIteration the first iteration number of the search
+     * @param iteration the current iteration of the search
+     * @return long the entry, or 0 if the board is not stored
+     */
+    public long probe(long board, int firstIteration, int iteration) {
+        this.probes.increment();
+        long key = key(board);
+        int slot = bucket(key);
+        for(int i = 0; i < 2; i++) {
+            long entry = this.entries.get(slot + i);
+            int entryIteration = getIteration(entry);
+            if((entry & KEY_MASK) == key && entryIteration >= firstIteration && entryIteration <= iteration) {
+                this.hits.increment();
+                return entry;
+            }
+        }
+        return 0;
+    }
+
+
+    /**
+     * Stores a board. The first slot of the bucket is taken unless it holds another
+     * board stored in the same iteration nearer the root; otherwise the entry goes to
+     * the second slot. Boards reached deeper than g(n) can hold are not stored.
+     * @param board the packed board
+     * @param g the g(n) the board was reached with
+     * @param bound the best known lower bound on the distance to the goal
+     * @param iteration the current iteration
+     */
+    public void store(long board, int g, int bound, int iteration) {
+        if(g > MAX_VALUE) {
+            return;
+        }
+        long key = key(board);
+        long entry = key | ((long) g << 19) | ((long) Math.min(bound, MAX_VALUE) << 26) | ((long) iteration << 33);
+        int slot = bucket(key);
+        this.stores.increment();
+
+        long first = this.entries.get(slot);
+        boolean sameBoard = (first & KEY_MASK) == key;
+        if(first == 0 || sameBoard || getIteration(first) != iteration || getG(first) >= g) {
+
+            //The entry moved out of the first slot takes the second
+            if(this.entries.compareAndSet(slot, first, entry) && first != 0 && !sameBoard) {
+                storeSecond(slot + 1, first);
+            }
+            return;
+        }
+        storeSecond(slot + 1, entry);
+    }
+
+
+    /**
+     * Writes an entry to the always replace slot of a bucket
+     * @param slot the index of the second slot
+     * @param entry the entry to write
+     */
+    private void storeSecond(int slot, long entry) {
+        long second = this.entries.get(slot);
+        if(this.entries.compareAndSet(slot, second, entry) && second != 0
+                && (second & KEY_MASK) != (entry & KEY_MASK)) {
+            this.replacements.increment();
+        }
+    }
+
+
+    /**
+     * Empties the table and its counters
+     */
+    public void clear() {
+        for(int i = 0; i < this.entries.length(); i++) {
+            this.entries.set(i, 0);
+        }
+        this.probes.reset();
+        this.hits.reset();
+        this.stores.reset();
+        this.replacements.reset();
+    }
+
+
+    /**
+     * Rank of a board among the 9! permutations, plus one so no board has the key 0
+     * @param board the packed board
+     * @return long the key, between 1 and 9!
+     */
+    private static long key(long board) {
+        int rank = 0;
+        int used = 0;
+        for(int i = 0; i < PackedBoard.CELLS; i++) {
+            int tile = PackedBoard.tileAt(board, i);
+            rank += (tile - Integer.bitCount(used & ((1 << tile) - 1))) * FACTORIALS[i];
+            used |= 1 << tile;
+        }
+        return rank + 1;
+    }
+
+
+    /**
+     * Index of the first slot of the bucket for a key
+     * @param key the board key
+     * @return int
+     */
+    private int bucket(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return ((int) (hash >>> 32) & this.bucketMask) << 1;
+    }
+
+
+    /**
+     * Returns the g(n) stored in an entry
+     * @param entry the entry
+     * @return int
+     */
+    public static int getG(long entry) {
+        return (int) ((entry >>> 19) & MAX_VALUE);
+    }
+
+    /**
+     * Returns the lower bound stored in an entry
+     * @param entry the entry
+     * @return int
+     */
+    public static int getBound(long entry) {
+        return (int) ((entry >>> 26) & MAX_VALUE);
+    }
+
+    /**
+     * Returns the iteration stored in an entry
+     * @param entry the entry
+     * @return int
+     */
+    public static int getIteration(long entry) {
+        return (int) (entry >>> 33);
+    }
+
+
+    /**
+     * Share of probes that found their board
+     * @return double the hit rate between 0 and 1
+     */
+    public double getHitRate() {
+        long p = this.probes.sum();
+        return p == 0 ? 0 : (double) this.hits.sum() / p;
+    }
+
+
+    /**
+     * Returns the counters of the table as one readable line
+     * @return String
+     */
+    @Override
+    public String toString() {
+        return "Transposition Table: " + this.entries.length() + " entries (" + 8L * this.entries.length() / 1024 + " KB), "
+                + this.probes.sum() + " probes, " + String.format(Locale.ROOT, "%.1f", 100 * getHitRate()) + "% hits, "
+                + this.stores.sum() + " stores, " + this.replacements.sum() + " replacements";
+    }
+
+
+    /**
+     * Getter for the number of entries the table can hold
+     * @return int
+     */
+    public int getSize() {
+        return this.entries.length();
+    }
+
+    /**
+     * Getter for the number of probes
+     * @return long
+     */
+    public long getProbes() {
+        return this.probes.sum();
+    }
+
+    /**
+     * Getter for the number of probes that found their board
+     * @return long
+     */
+    public long getHits() {
+        return this.hits.sum();
+    }
+
+    /**
+     * Getter for the number of entries pushed out of the table
+     * @return long
+     */
+    public long getReplacements() {
+        return this.replacements.sum();
+    }
+}